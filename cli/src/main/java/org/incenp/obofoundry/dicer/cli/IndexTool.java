@@ -0,0 +1,133 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.incenp.obofoundry.dicer.IDFormat;
+import org.incenp.obofoundry.dicer.IDIndexCache;
+import org.incenp.obofoundry.dicer.IDPolicyHelper;
+import org.incenp.obofoundry.dicer.IDPolicyReader;
+import org.incenp.obofoundry.dicer.InvalidIDPolicyException;
+import org.incenp.obofoundry.dicer.UsedIDIndex;
+
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParentCommand;
+
+/**
+ * A command to build or refresh the cache of used IDs.
+ */
+@Command(name = "index",
+         description = "Build or refresh the cache of IDs used in ontology files.",
+         optionListHeading = "%nGeneral options:%n",
+         footer = "Report bugs to <dgouttegattat@incenp.org>.",
+         footerHeading = "%n")
+public class IndexTool implements Runnable {
+
+    @ParentCommand
+    private SimpleCLI cli;
+
+    @Option(names = { "-h", "--help" }, usageHelp = true,
+            description = "Show this help message and exit.")
+    private boolean showHelp;
+
+    @Parameters(paramLabel = "FILE", arity = "1..*",
+                description = "The ontology files to index. May also be directories or glob patterns.")
+    private List<String> files;
+
+    @Option(names = { "--cache-dir" }, paramLabel = "DIR",
+            description = "Store the cache in DIR instead of the default cache directory.")
+    private String cacheDir;
+
+    @Option(names = { "-f", "--force" },
+            description = "Scan the files again even if they have not changed.")
+    private boolean force;
+
+    @ArgGroup(validate = false, heading = "%nID format options:%n")
+    private FormatOptions formatOpts = new FormatOptions();
+
+    private static class FormatOptions {
+
+        @Option(names = { "-p", "--prefix" }, paramLabel = "PREFIX",
+                description = "Prefix of IDs to look for.")
+        private String prefix;
+
+        @Option(names = { "-w", "--width" }, paramLabel = "NUM",
+                description = "Number of digits in IDs (default: 7).")
+        private int width = 7;
+
+        @Option(names = { "-P", "--policy" }, paramLabel = "FILE",
+                description = "Look for the IDs described in the specified ID policy.")
+        private String policy;
+    }
+
+    @Override
+    public void run() {
+        IDFormat format = getIDFormat();
+        IDIndexCache cache = new IDIndexCache(
+                cacheDir != null ? Paths.get(cacheDir) : IDIndexCache.getDefaultDirectory());
+
+        List<Path> paths = null;
+        try {
+            paths = SourceFiles.expand(files);
+        } catch ( IOException e ) {
+            cli.error("Cannot index: %s", e.getMessage());
+        }
+
+        for ( Path path : paths ) {
+            try {
+                if ( !force && cache.isUpToDate(path, format) ) {
+                    cli.info("%s: up to date", path);
+                    continue;
+                }
+                UsedIDIndex index = force ? cache.refresh(path, format) : cache.getIndex(path, format);
+                cli.info("%s: %d IDs indexed", path, index.getBitmap().cardinality());
+            } catch ( IOException e ) {
+                cli.error("Cannot index %s: %s", path, e.getMessage());
+            }
+        }
+    }
+
+    private IDFormat getIDFormat() {
+        IDFormat format = null;
+        if ( formatOpts.prefix != null ) {
+            format = new IDFormat(formatOpts.prefix, formatOpts.width);
+        } else {
+            String policyFile = formatOpts.policy;
+            if ( policyFile == null ) {
+                policyFile = IDPolicyHelper.findIDPolicyFile().orElse(null);
+                if ( policyFile == null ) {
+                    cli.error("No ID policy file found; use --policy or --prefix");
+                }
+            }
+            try {
+                format = new IDFormat(new IDPolicyReader().read(policyFile));
+            } catch ( InvalidIDPolicyException | IOException e ) {
+                cli.error("Cannot use ID policy file: %s", e.getMessage());
+            }
+        }
+        return format;
+    }
+}
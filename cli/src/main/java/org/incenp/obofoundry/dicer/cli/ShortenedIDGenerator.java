@@ -18,20 +18,25 @@
 
 package org.incenp.obofoundry.dicer.cli;
 
+import java.util.List;
+
 import org.incenp.obofoundry.dicer.IAutoIDGenerator;
 import org.incenp.obofoundry.dicer.IDNotFoundException;
+import org.incenp.obofoundry.dicer.PrefixMap;
 
 /**
  * An ID generator that produces OBO-style short-form IDs (“CURIEs”).
  * <p>
  * This generator wraps another generator to automatically shorten the IDs
- * produced by the wrapped generator. It assumes that the IDs produced are of
- * the form <code>PREFIX/XXXX_ZZZZ</code>, and will turn them into
- * <code>XXXX:ZZZZ</code>.
+ * produced by the wrapped generator. If a prefix map is available, IDs are
+ * shortened according to the declared prefixes. Otherwise, or if no declared
+ * prefix matches, it assumes that the IDs produced are of the form
+ * <code>PREFIX/XXXX_ZZZZ</code>, and will turn them into <code>XXXX:ZZZZ</code>.
  */
 public class ShortenedIDGenerator implements IAutoIDGenerator {
 
     private IAutoIDGenerator inner;
+    private PrefixMap prefixMap;
 
     /**
      * Creates a new instance.
@@ -39,18 +44,53 @@ public class ShortenedIDGenerator implements IAutoIDGenerator {
      * @param innerGenerator The generator whose IDs should be shortened.
      */
     public ShortenedIDGenerator(IAutoIDGenerator innerGenerator) {
+        this(innerGenerator, null);
+    }
+
+    /**
+     * Creates a new instance with a prefix map.
+     * 
+     * @param innerGenerator The generator whose IDs should be shortened.
+     * @param prefixMap      The prefixes to use to shorten the IDs. May be
+     *                       {@code null}.
+     */
+    public ShortenedIDGenerator(IAutoIDGenerator innerGenerator, PrefixMap prefixMap) {
         inner = innerGenerator;
+        this.prefixMap = prefixMap;
     }
 
     @Override
     public String nextID() throws IDNotFoundException {
-        String next = inner.nextID();
-        int pos = next.lastIndexOf('/');
-        if ( pos != -1 ) {
-            String suffix = next.substring(pos + 1);
-            pos = suffix.indexOf('_');
-            if ( pos != -1 ) {
-                next = suffix.substring(0, pos) + ":" + suffix.substring(pos + 1);
+        return shorten(inner.nextID());
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        List<String> ids = inner.nextIDs(count);
+        for ( int i = 0, n = ids.size(); i < n; i++ ) {
+            ids.set(i, shorten(ids.get(i)));
+        }
+        return ids;
+    }
+
+    private String shorten(String next) {
+        if ( prefixMap != null ) {
+            String curie = prefixMap.contract(next);
+            if ( curie != null ) {
+                return curie;
+            }
+        }
+
+        int slash = next.lastIndexOf('/');
+        if ( slash != -1 ) {
+            int underscore = next.indexOf('_', slash + 1);
+            if ( underscore != -1 ) {
+                int len = next.length();
+                StringBuilder sb = new StringBuilder(len - slash - 1);
+                sb.append(next, slash + 1, underscore);
+                sb.append(':');
+                sb.append(next, underscore + 1, len);
+                next = sb.toString();
             }
         }
         return next;
@@ -0,0 +1,150 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer.cli;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Helper class to expand command-line arguments into a list of files.
+ */
+public class SourceFiles {
+
+    private static final Set<String> ONTOLOGY_EXTENSIONS = Set.of("owl", "obo", "ofn", "omn", "owx", "rdf", "ttl");
+
+    /**
+     * Expands a list of file names, directory names, and glob patterns.
+     * <p>
+     * A file name is used as it is. A directory is expanded to all the regular
+     * files it contains, recursively, except hidden files and directories. A glob
+     * pattern (any argument that contains one of the characters {@code *?[{}) is
+     * expanded to all the regular files that match it; the {@code **} pattern may
+     * be used to match any number of directories.
+     * 
+     * @param arguments The arguments to expand.
+     * @return The sorted list of all the files referred to by the arguments, each
+     *         file appearing only once.
+     * @throws IOException If a named file does not exist, if a glob pattern
+     *                     does not match any file, or if any I/O error occurs when
+     *                     exploring a directory.
+     */
+    public static List<Path> expand(Collection<String> arguments) throws IOException {
+        TreeSet<Path> files = new TreeSet<>();
+        for ( String argument : arguments ) {
+            int n = files.size();
+            if ( isGlob(argument) ) {
+                expandGlob(argument, files);
+                if ( files.size() == n ) {
+                    throw new FileNotFoundException("No file matching " + argument);
+                }
+            } else {
+                Path path = Paths.get(argument);
+                if ( Files.isDirectory(path) ) {
+                    expandDirectory(path, files);
+                } else if ( Files.exists(path) ) {
+                    files.add(path.normalize());
+                } else {
+                    throw new FileNotFoundException(argument + " (No such file or directory)");
+                }
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Checks whether a file is an ontology document that OWLAPI should be able
+     * to load, based on the extension of its name.
+     * 
+     * @param file The file to check.
+     * @return {@code true} if the file has one of the extensions commonly used
+     *         for ontology documents, otherwise {@code false}.
+     */
+    public static boolean isOntologyFile(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot != -1 && ONTOLOGY_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isGlob(String argument) {
+        for ( int i = 0, n = argument.length(); i < n; i++ ) {
+            char c = argument.charAt(i);
+            if ( c == '*' || c == '?' || c == '[' || c == '{' ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void expandDirectory(Path directory, Collection<Path> files) throws IOException {
+        try ( Stream<Path> paths = Files.walk(directory) ) {
+            paths.filter(p -> Files.isRegularFile(p) && !isHidden(directory.relativize(p)))
+                    .forEach(p -> files.add(p.normalize()));
+        }
+    }
+
+    /*
+     * The glob is matched relatively to the longest leading portion of the
+     * pattern that does not contain any wildcard.
+     */
+    private static void expandGlob(String pattern, Collection<Path> files) throws IOException {
+        String[] parts = pattern.split("/", -1);
+        int i = 0;
+        while ( i < parts.length - 1 && !isGlob(parts[i]) ) {
+            i += 1;
+        }
+        String baseName = String.join("/", List.of(parts).subList(0, i));
+        if ( baseName.isEmpty() && pattern.startsWith("/") ) {
+            baseName = "/";
+        }
+        Path base = Paths.get(baseName);
+        String remainder = String.join("/", List.of(parts).subList(i, parts.length));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + remainder);
+        int maxDepth = remainder.contains("**") ? Integer.MAX_VALUE : parts.length - i;
+
+        Path root = baseName.isEmpty() ? Paths.get(".") : base;
+        if ( !Files.isDirectory(root) ) {
+            return;
+        }
+        try ( Stream<Path> paths = Files.walk(root, maxDepth) ) {
+            paths.filter(p -> Files.isRegularFile(p) && matcher.matches(root.relativize(p)))
+                    .forEach(p -> files.add(base.resolve(root.relativize(p)).normalize()));
+        }
+    }
+
+    private static boolean isHidden(Path relativePath) {
+        for ( Path component : relativePath ) {
+            if ( component.toString().startsWith(".") ) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -22,25 +22,40 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.catalog.CatalogException;
 
+import org.incenp.obofoundry.dicer.ChainedIDGenerator;
+import org.incenp.obofoundry.dicer.ClaimingIDGenerator;
+import org.incenp.obofoundry.dicer.ElasticIDGenerator;
 import org.incenp.obofoundry.dicer.IAutoIDGenerator;
+import org.incenp.obofoundry.dicer.IDClaimFile;
+import org.incenp.obofoundry.dicer.IDFormat;
+import org.incenp.obofoundry.dicer.IDIndexCache;
+import org.incenp.obofoundry.dicer.IDJournal;
 import org.incenp.obofoundry.dicer.IDNotFoundException;
 import org.incenp.obofoundry.dicer.IDPolicyHelper;
 import org.incenp.obofoundry.dicer.IDRange;
 import org.incenp.obofoundry.dicer.IDRangeNotFoundException;
+import org.incenp.obofoundry.dicer.IDScanner;
 import org.incenp.obofoundry.dicer.IExistenceChecker;
+import org.incenp.obofoundry.dicer.IIntExistenceChecker;
+import org.incenp.obofoundry.dicer.ImportsClosureLoader;
 import org.incenp.obofoundry.dicer.InvalidIDPolicyException;
+import org.incenp.obofoundry.dicer.JournaledIDGenerator;
+import org.incenp.obofoundry.dicer.PrefixMap;
 import org.incenp.obofoundry.dicer.SequentialIDGenerator;
-import org.semanticweb.owlapi.apibinding.OWLManager;
-import org.semanticweb.owlapi.model.IRI;
-import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLOntologyCreationException;
-import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.incenp.obofoundry.dicer.TieredExistenceChecker;
+import org.incenp.obofoundry.dicer.UsedIDIndex;
+import org.semanticweb.owlapi.model.parameters.Imports;
 
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
@@ -127,6 +142,26 @@ public class TSVTool implements Runnable, ITSVListener {
         @Option(names = { "-s", "--shorten-id" }, defaultValue = "false",
                 description = "Generate OBO-style short-form IDs.")
         private boolean shortFormat = false;
+
+        @Option(names = { "-j", "--journal" }, paramLabel = "FILE", arity = "0..1", fallbackValue = "",
+                description = "Resume from, and update, the journal of last issued IDs. The default journal file "
+                        + "is stored next to the ID policy file.")
+        private String journal;
+
+        @Option(names = { "--prefix-map" }, paramLabel = "FILE",
+                description = "Use prefix declarations from the specified file (JSON-LD context or TSV) "
+                        + "to shorten and expand IDs.")
+        private String prefixMapFile;
+
+        @Option(names = { "--claim-file" }, paramLabel = "FILE",
+                description = "Claim IDs in the specified file, which may be shared with other concurrent "
+                        + "invocations minting IDs from the same range.")
+        private String claimFile;
+
+        @Option(names = { "--grow-by" }, paramLabel = "NUM",
+                description = "When the range is exhausted, grow it by NUM IDs and update the ID policy file "
+                        + "accordingly.")
+        private int growBy = 0;
     }
 
     @ArgGroup(validate = false, heading = "%nEditing options:%n")
@@ -148,17 +183,46 @@ public class TSVTool implements Runnable, ITSVListener {
 
     private static class IDSourceOptions {
         @Option(names = { "--ontology" }, paramLabel = "FILE",
-                description = "Use the specified ontology as source of already-used IDs.")
-        private String ontologyFile;
+                description = "Use the specified ontology as source of already-used IDs. May be repeated. FILE "
+                        + "may also be a directory or a glob pattern, to use all the matching files.")
+        private List<String> ontologyFiles = new ArrayList<>();
+
+        @Option(names = { "--with-imports" },
+                description = "Also consider the IDs used in the ontologies imported by the --ontology file.")
+        private boolean withImports;
+
+        @Option(names = { "--with-annotation-subjects" },
+                description = "Also consider the IRIs that are only used as subjects of annotation assertions "
+                        + "in the --ontology file.")
+        private boolean withAnnotationSubjects;
+
+        @Option(names = { "--fast-scan" },
+                description = "Find the IDs used in the --ontology file by scanning its text, instead of "
+                        + "loading it as an ontology. Imports are not followed.")
+        private boolean fastScan;
+
+        @Option(names = { "--index-cache" }, paramLabel = "DIR", arity = "0..1", fallbackValue = "",
+                description = "Like --fast-scan, but keep the IDs found in the --ontology file in a cache, so that "
+                        + "the file is only scanned again when it changes. Default cache directory is "
+                        + "~/.cache/dicer.")
+        private String indexCache;
 
         @Option(names = { "--catalog" }, paramLabel = "FILE",
                 description = "Use the specified XML catalog.")
         private String catalogFile;
+
+        @Option(names = { "--stats" },
+                description = "Print how many candidate IDs have been checked against each source of already-used "
+                        + "IDs, and how many of them were found to be in use.")
+        private boolean stats;
     }
 
     private Writer output;
     private String outputSep;
     private IAutoIDGenerator generator;
+    private PrefixMap prefixMap;
+    private IDClaimFile claimFile;
+    private TieredExistenceChecker checker;
     private int columnIndex;
     private List<String> comments = new ArrayList<>();
     private List<String> header;
@@ -201,15 +265,51 @@ public class TSVTool implements Runnable, ITSVListener {
     }
 
     private void generateIDs() {
-        generator = getIDGenerator();
-        try {
-            for ( List<String> row : rows ) {
-                if ( editOpts.overwrite || row.get(columnIndex).isEmpty() ) {
-                    row.set(columnIndex, generator.nextID());
+        ArrayList<List<String>> targetRows = new ArrayList<>();
+        HashSet<String> reserved = new HashSet<>();
+        prefixMap = getPrefixMap();
+        for ( List<String> row : rows ) {
+            String value = row.get(columnIndex);
+            if ( editOpts.overwrite || value.isEmpty() ) {
+                targetRows.add(row);
+            } else {
+                // IDs already present in the file must not be generated again,
+                // whether they are written in full or in short form.
+                reserved.add(value);
+                if ( prefixMap != null ) {
+                    String iri = prefixMap.expand(value);
+                    if ( iri != null ) {
+                        reserved.add(iri);
+                    }
                 }
             }
+        }
+
+        generator = getIDGenerator(reserved);
+        try {
+            // Mint all the IDs we need in a single call.
+            List<String> ids = generator.nextIDs(targetRows.size());
+            for ( int i = 0, n = targetRows.size(); i < n; i++ ) {
+                targetRows.get(i).set(columnIndex, ids.get(i));
+            }
         } catch ( IDNotFoundException e ) {
             cli.error("Cannot generate ID: %s", e.getMessage());
+        } catch ( UncheckedIOException e ) {
+            cli.error("%s: %s", e.getMessage(), e.getCause().getMessage());
+        } finally {
+            if ( claimFile != null ) {
+                try {
+                    claimFile.close();
+                } catch ( IOException e ) {
+                    cli.error("Cannot write claim file %s: %s", idGenOpts.claimFile, e.getMessage());
+                }
+            }
+        }
+
+        if ( idSourceOpts.stats ) {
+            for ( TieredExistenceChecker.Tier tier : checker.getTiers() ) {
+                cli.warn("%s: %d IDs checked, %d in use", tier.getName(), tier.getQueries(), tier.getHits());
+            }
         }
     }
 
@@ -281,13 +381,21 @@ public class TSVTool implements Runnable, ITSVListener {
     }
 
     private void writeRow(List<String> row) throws IOException {
-        output.append(String.join(outputSep, row));
+        for ( int i = 0, n = row.size(); i < n; i++ ) {
+            if ( i > 0 ) {
+                output.append(outputSep);
+            }
+            output.append(row.get(i));
+        }
         output.append('\n');
     }
 
-    private IAutoIDGenerator getIDGenerator() {
+    private IAutoIDGenerator getIDGenerator(Set<String> reserved) {
         IAutoIDGenerator gen = null;
-        IExistenceChecker checker = getIDExistenceChecker();
+        IDFormat format = null;
+        IDRange rng = null;
+        int min = 0, max = 0;
+        String policyFile = null;
         if ( idGenOpts.prefix != null ) {
             if ( idGenOpts.min == -1 ) {
                 cli.error("Missing --min option, required with --prefix");
@@ -295,40 +403,159 @@ public class TSVTool implements Runnable, ITSVListener {
             if ( idGenOpts.max == -1 ) {
                 idGenOpts.max = idGenOpts.min + 1000;
             }
-            String format = String.format("%s%%0%dd", idGenOpts.prefix, idGenOpts.width);
-            gen = new SequentialIDGenerator(format, idGenOpts.min, idGenOpts.max, checker);
+            format = new IDFormat(idGenOpts.prefix, idGenOpts.width);
+            min = idGenOpts.min;
+            max = idGenOpts.max;
         } else {
             try {
-                IDRange rng = IDPolicyHelper.getRange(idGenOpts.range, new String[] { "dicer" }, idGenOpts.policy);
-                gen = new SequentialIDGenerator(rng, checker);
+                rng = IDPolicyHelper.getRange(idGenOpts.range, new String[] { "dicer" }, idGenOpts.policy);
+                format = rng.getIDFormat();
+                min = rng.getLowerBound();
+                max = rng.getUpperBound();
+                policyFile = idGenOpts.policy;
+                if ( policyFile == null ) {
+                    policyFile = IDPolicyHelper.findIDPolicyFile().get();
+                }
             } catch ( InvalidIDPolicyException | IDRangeNotFoundException | IOException e ) {
                 cli.error("Cannot use ID policy file: %s", e.getMessage());
             }
         }
 
-        return idGenOpts.shortFormat ? new ShortenedIDGenerator(gen) : gen;
+        // Each candidate ID is only checked once, so caching would be useless.
+        checker = new TieredExistenceChecker(format, 0);
+        if ( !reserved.isEmpty() ) {
+            UsedIDIndex reservedIndex = new UsedIDIndex(format);
+            for ( String id : reserved ) {
+                reservedIndex.add(id);
+            }
+            checker.addTier("reserved", reservedIndex);
+        }
+        if ( !idSourceOpts.ontologyFiles.isEmpty() ) {
+            IExistenceChecker ontologyChecker = getIDExistenceChecker(format);
+            if ( prefixMap != null && !(ontologyChecker instanceof IIntExistenceChecker) ) {
+                // An index already knows the IDs in the format we generate, only a
+                // string-based checker may need expanded IDs.
+                ontologyChecker = prefixMap.getExpandingChecker(ontologyChecker);
+            }
+            checker.addTier("ontology", ontologyChecker);
+        }
+
+        if ( idGenOpts.journal != null && idGenOpts.claimFile != null ) {
+            cli.error("Options --journal and --claim-file are mutually exclusive");
+        }
+        if ( idGenOpts.growBy > 0 ) {
+            if ( rng == null ) {
+                cli.error("Option --grow-by requires an ID policy");
+            }
+            if ( idGenOpts.journal != null || idGenOpts.claimFile != null ) {
+                cli.error("Option --grow-by cannot be used with --journal or --claim-file");
+            }
+            gen = new ElasticIDGenerator(rng, checker, idGenOpts.growBy, policyFile);
+        } else if ( idGenOpts.journal != null ) {
+            Path journalFile = null;
+            if ( !idGenOpts.journal.isEmpty() ) {
+                journalFile = Paths.get(idGenOpts.journal);
+            } else if ( policyFile != null ) {
+                journalFile = IDJournal.getDefaultPath(Paths.get(policyFile));
+            } else {
+                cli.error("Missing journal file, required with --prefix");
+            }
+            gen = new JournaledIDGenerator(format, min, max, checker, loadJournal(journalFile));
+        } else if ( idGenOpts.claimFile != null ) {
+            try {
+                claimFile = IDClaimFile.open(Paths.get(idGenOpts.claimFile), min, max);
+            } catch ( IOException e ) {
+                cli.error("Cannot use claim file %s: %s", idGenOpts.claimFile, e.getMessage());
+            }
+            gen = new ClaimingIDGenerator(format, claimFile, checker);
+        } else if ( rng != null && rng.getPolicy().getRanges(rng.getName()).size() > 1 ) {
+            // Start from the selected range, and spill over to the user's other
+            // ranges when it is full.
+            List<IDRange> ranges = new ArrayList<>();
+            ranges.add(rng);
+            for ( IDRange other : rng.getPolicy().getRanges(rng.getName()) ) {
+                if ( other != rng ) {
+                    ranges.add(other);
+                }
+            }
+            gen = new ChainedIDGenerator(ranges, checker);
+        } else {
+            gen = new SequentialIDGenerator(format, min, max, checker);
+        }
+
+        return idGenOpts.shortFormat ? new ShortenedIDGenerator(gen, prefixMap) : gen;
+    }
+
+    private PrefixMap getPrefixMap() {
+        PrefixMap map = null;
+        if ( idGenOpts.prefixMapFile != null ) {
+            try {
+                map = PrefixMap.load(idGenOpts.prefixMapFile);
+            } catch ( IOException e ) {
+                cli.error("Cannot read prefix map %s: %s", idGenOpts.prefixMapFile, e.getMessage());
+            }
+        }
+        return map;
+    }
+
+    private IDJournal loadJournal(Path file) {
+        IDJournal journal = null;
+        try {
+            journal = IDJournal.load(file);
+        } catch ( IOException e ) {
+            cli.error("Cannot read journal %s: %s", file, e.getMessage());
+        }
+        return journal;
     }
 
-    private IExistenceChecker getIDExistenceChecker() {
+    private IExistenceChecker getIDExistenceChecker(IDFormat format) {
+        List<Path> files = null;
+        try {
+            files = SourceFiles.expand(idSourceOpts.ontologyFiles);
+        } catch ( IOException e ) {
+            cli.error("Cannot read ontology: %s", e.getMessage());
+        }
+
         IExistenceChecker checker = null;
-        if ( idSourceOpts.ontologyFile != null ) {
-            OWLOntologyManager mgr = OWLManager.createOWLOntologyManager();
-            File catalog = getCatalogFile();
-            if (catalog != null) {
+        if ( idSourceOpts.fastScan || idSourceOpts.indexCache != null ) {
+            if ( idSourceOpts.withImports ) {
+                cli.error("Options --fast-scan and --index-cache cannot be used with --with-imports");
+            }
+            try {
+                if ( idSourceOpts.indexCache != null ) {
+                    IDIndexCache cache = new IDIndexCache(idSourceOpts.indexCache.isEmpty()
+                            ? IDIndexCache.getDefaultDirectory()
+                            : Paths.get(idSourceOpts.indexCache));
+                    checker = cache.getIndex(files, format);
+                } else {
+                    checker = new IDScanner(format).index(files);
+                }
+            } catch ( IOException e ) {
+                cli.error("Cannot read ontology: %s", e.getMessage());
+            }
+        } else {
+            File catalogFile = getCatalogFile();
+            XMLCatalogIRIMapper catalog = null;
+            if ( catalogFile != null ) {
                 try {
-                    mgr.getIRIMappers().add(new XMLCatalogIRIMapper(catalog));
+                    catalog = new XMLCatalogIRIMapper(catalogFile);
                 } catch ( CatalogException | IllegalArgumentException e ) {
                     cli.error("Cannot parse catalog: %s", e.getMessage());
                 }
             }
+            ImportsClosureLoader loader = new ImportsClosureLoader(catalog);
+            Imports imports = idSourceOpts.withImports ? Imports.INCLUDED : Imports.EXCLUDED;
+            // Files that are not ontology documents (e.g. ROBOT templates found in
+            // a directory) are scanned instead of being given to OWLAPI.
+            IDScanner scanner = new IDScanner(format);
             try {
-                OWLOntology ont = mgr.loadOntologyFromOntologyDocument(new File(idSourceOpts.ontologyFile));
-                checker = (id) -> ont.containsEntityInSignature(IRI.create(id));
-            } catch ( OWLOntologyCreationException e ) {
-                cli.error("Cannot read ontology %s: %s", idSourceOpts.ontologyFile, e.getMessage());
+                checker = UsedIDIndex.fromFiles(format, files,
+                        (file) -> SourceFiles.isOntologyFile(file)
+                                ? loader.index(format, file, imports, idSourceOpts.withAnnotationSubjects)
+                                : scanner.index(file));
+            } catch ( IOException e ) {
+                cli.error("Cannot read ontology: %s", e.getMessage());
             }
-        } else {
-            checker = (id) -> false;
         }
 
         return checker;
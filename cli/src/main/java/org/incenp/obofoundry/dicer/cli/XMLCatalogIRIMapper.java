@@ -19,6 +19,8 @@
 package org.incenp.obofoundry.dicer.cli;
 
 import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.catalog.Catalog;
 import javax.xml.catalog.CatalogException;
@@ -32,12 +34,17 @@ import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
 /**
  * An implementation of the OWLOntologyIRIMapper interface based on a XML
  * catalog. This is merely a wrapper around the standard Java XML Catalog API.
+ * <p>
+ * Lookups are memoized, so that resolving the same IRI several times only
+ * queries the catalog once. Instances of this class can safely be shared
+ * between threads.
  */
 public class XMLCatalogIRIMapper implements OWLOntologyIRIMapper {
 
     private static final long serialVersionUID = 630030268016929309L;
 
     private Catalog catalog;
+    private ConcurrentHashMap<IRI, Optional<IRI>> cache = new ConcurrentHashMap<>();
 
     /**
      * Creates a new instance from the specified file.
@@ -56,11 +63,10 @@ public class XMLCatalogIRIMapper implements OWLOntologyIRIMapper {
 
     @Override
     public IRI getDocumentIRI(IRI ontologyIRI) {
-        String resolved = catalog.matchURI(ontologyIRI.toString());
-        if ( resolved != null ) {
-            return IRI.create(resolved);
-        }
-        return null;
+        return cache.computeIfAbsent(ontologyIRI, (iri) -> {
+            String resolved = catalog.matchURI(iri.toString());
+            return Optional.ofNullable(resolved != null ? IRI.create(resolved) : null);
+        }).orElse(null);
     }
 
 }
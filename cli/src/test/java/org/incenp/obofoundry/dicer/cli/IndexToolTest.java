@@ -0,0 +1,61 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.incenp.obofoundry.dicer.IDFormat;
+import org.incenp.obofoundry.dicer.IDIndexCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IndexToolTest extends CLITestBase {
+
+    @Test
+    void testBuildingIndex() throws IOException {
+        File cacheDir = new File("target/index-cache");
+        FileUtils.deleteDirectory(cacheDir);
+
+        runCommand(0, List.of("--prefix", "https://example.org/DICER_", "--cache-dir", cacheDir.getPath(),
+                "src/test/resources/tsv/in-use.ttl"));
+
+        IDIndexCache cache = new IDIndexCache(cacheDir.toPath());
+        IDFormat format = new IDFormat("https://example.org/DICER_", 7);
+        Assertions.assertTrue(cache.isUpToDate(Paths.get("src/test/resources/tsv/in-use.ttl"), format));
+        Assertions.assertTrue(cache.getIndex(Paths.get("src/test/resources/tsv/in-use.ttl"), format).exists(1001));
+
+        // Running again does nothing, but is not an error
+        runCommand(0, List.of("--prefix", "https://example.org/DICER_", "--cache-dir", cacheDir.getPath(),
+                "src/test/resources/tsv/in-use.ttl"));
+    }
+
+    @Test
+    void testMissingFile() {
+        runCommand(1, List.of("--prefix", "https://example.org/DICER_", "--cache-dir", "target/index-cache",
+                "src/test/resources/tsv/no-such-file.ttl"));
+    }
+
+    protected String getCommand() {
+        return "index";
+    }
+}
@@ -18,7 +18,16 @@
 
 package org.incenp.obofoundry.dicer.cli;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
+
+import org.apache.commons.io.FileUtils;
+import org.incenp.obofoundry.dicer.IDPolicy;
+import org.incenp.obofoundry.dicer.IDPolicyReader;
+import org.incenp.obofoundry.dicer.InvalidIDPolicyException;
+import org.junit.jupiter.api.Assertions;
 
 import org.junit.jupiter.api.Test;
 
@@ -85,6 +94,30 @@ public class TSVToolTest extends CLITestBase {
         });
     }
 
+    @Test
+    void testSpillOverToNextRange() throws IOException {
+        runCommand(0, "sample.tsv", "sample-edit1-chained-ranges.tsv", new String[] {
+                "--policy", "src/test/resources/tsv/multi-idranges.owl",
+                "--range", "bot"
+        });
+    }
+
+    @Test
+    void testGrowingExhaustedRange() throws IOException, InvalidIDPolicyException {
+        File policyFile = new File("target/grow-idranges.owl");
+        FileUtils.copyFile(new File("src/test/resources/tsv/grow-idranges.owl"), policyFile);
+
+        runCommand(0, "sample.tsv", "sample-edit1-grown-range.tsv", new String[] {
+                "--policy", policyFile.getPath(),
+                "--range", "bot",
+                "--grow-by", "10"
+        });
+
+        IDPolicy policy = new IDPolicyReader().read(policyFile.getPath());
+        Assertions.assertEquals(12, policy.findRangeByID(1).get().getUpperBound());
+        policyFile.delete();
+    }
+
     @Test
     void testUsingOntologyAsIDSource() throws IOException {
         runCommand(0, "sample.tsv", "sample-edit1-checked-against-ontology.tsv", new String[] {
@@ -94,6 +127,80 @@ public class TSVToolTest extends CLITestBase {
         });
     }
 
+    @Test
+    void testScanningOntologyAsIDSource() throws IOException {
+        runCommand(0, "sample.tsv", "sample-edit1-checked-against-ontology.tsv", new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/in-use.ttl",
+                "--fast-scan"
+        });
+    }
+
+    @Test
+    void testScanningDirectory() throws IOException {
+        runCommand(0, "sample.tsv", "sample-edit1-checked-against-files.tsv", new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/used-ids",
+                "--fast-scan"
+        });
+    }
+
+    @Test
+    void testLoadingDirectory() throws IOException {
+        // The OBO file is loaded with OWLAPI, the other files are scanned.
+        runCommand(0, "sample.tsv", "sample-edit1-loaded-from-directory.tsv", new String[] {
+                "--prefix", "http://purl.obolibrary.org/obo/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/used-ids"
+        });
+    }
+
+    @Test
+    void testScanningGlobs() throws IOException {
+        runCommand(0, "sample.tsv", "sample-edit1-checked-against-files.tsv", new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/used-ids/*.obo",
+                "--ontology", "src/test/resources/tsv/used-ids/**/*.tsv",
+                "--fast-scan"
+        });
+
+        runCommand(1, "sample.tsv", null, new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/used-ids/*.owl",
+                "--fast-scan"
+        });
+    }
+
+    @Test
+    void testUsingSeveralOntologies() throws IOException {
+        runCommand(0, "sample.tsv", "sample-edit1-checked-against-ontology.tsv", new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/in-use-imports.ttl",
+                "--ontology", "src/test/resources/tsv/in-use.ttl",
+                "--catalog", "src/test/resources/tsv/catalog.xml"
+        });
+    }
+
+    @Test
+    void testCachingOntologyIndex() throws IOException {
+        File cacheDir = new File("target/tsv-index-cache");
+        FileUtils.deleteDirectory(cacheDir);
+        String[] args = new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/in-use.ttl",
+                "--index-cache", cacheDir.getPath()
+        };
+        runCommand(0, "sample.tsv", "sample-edit1-checked-against-ontology.tsv", args);
+        Assertions.assertEquals(1, cacheDir.list().length);
+        runCommand(0, "sample.tsv", "sample-edit1-checked-against-ontology.tsv", args);
+    }
+
     @Test
     void testUsingExplicitCatalog() throws IOException {
         runCommand(0, "sample.tsv", "sample-edit1-checked-against-ontology.tsv", new String[] {
@@ -104,6 +211,17 @@ public class TSVToolTest extends CLITestBase {
         });
     }
 
+    @Test
+    void testIndexingImportsClosure() throws IOException {
+        runCommand(0, "sample.tsv", "sample-edit1-checked-against-ontology.tsv", new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--ontology", "src/test/resources/tsv/in-use-imports.ttl",
+                "--catalog", "src/test/resources/tsv/catalog.xml",
+                "--with-imports", "--with-annotation-subjects"
+        });
+    }
+
     @Test
     void testDisablingCatalog() throws IOException {
         runCommand(1, "sample.tsv", null, new String[] {
@@ -149,6 +267,89 @@ public class TSVToolTest extends CLITestBase {
         });
     }
 
+    @Test
+    void testShortenedIDsWithPrefixMap() throws IOException {
+        runCommand(0, "sample.tsv", "sample-edit1-prefix-map.tsv", new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--shorten-id",
+                "--prefix-map", "src/test/resources/tsv/prefixes.jsonld"
+        });
+    }
+
+    @Test
+    void testExistingCURIEsAreReserved() throws IOException {
+        runCommand(0, "sample-existing-curie.tsv", "sample-preserved-curie.tsv", new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--shorten-id",
+                "--no-overwrite",
+                "--prefix-map", "src/test/resources/tsv/prefixes.jsonld"
+        });
+    }
+
+    @Test
+    void testReportingCheckStatistics() throws IOException {
+        PrintStream stderr = System.err;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(captured, true, "UTF-8"));
+        try {
+            runCommand(0, "sample-existing-curie.tsv", "sample-preserved-curie-checked.tsv", new String[] {
+                    "--prefix", "https://example.org/DICER_",
+                    "--min-id", "1000",
+                    "--no-overwrite",
+                    "--prefix-map", "src/test/resources/tsv/prefixes.jsonld",
+                    "--ontology", "src/test/resources/tsv/in-use.ttl",
+                    "--stats"
+            });
+        } finally {
+            System.setErr(stderr);
+        }
+
+        String report = captured.toString("UTF-8");
+        Assertions.assertTrue(report.contains("reserved: 4 IDs checked, 1 in use"));
+        Assertions.assertTrue(report.contains("ontology: 3 IDs checked, 1 in use"));
+    }
+
+    @Test
+    void testResumingFromJournal() throws IOException {
+        File journal = new File("target/tsv-test.journal");
+        journal.delete();
+        String[] args = new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--journal", journal.getPath()
+        };
+
+        runCommand(0, "sample.tsv", "sample-edit1.tsv", args);
+        runCommand(0, "sample.tsv", "sample-edit1-resumed.tsv", args);
+        journal.delete();
+    }
+
+    @Test
+    void testSharingClaimFile() throws IOException {
+        File claims = new File("target/tsv-test.claims");
+        claims.delete();
+        String[] args = new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--claim-file", claims.getPath()
+        };
+
+        runCommand(0, "sample.tsv", "sample-edit1.tsv", args);
+        runCommand(0, "sample.tsv", "sample-edit1-resumed.tsv", args);
+        claims.delete();
+    }
+
+    @Test
+    void testMissingJournalFileWithPrefix() throws IOException {
+        runCommand(1, "sample.tsv", null, new String[] {
+                "--prefix", "https://example.org/DICER_",
+                "--min-id", "1000",
+                "--journal"
+        });
+    }
+
     protected String getCommand() {
         return "tsv";
     }
@@ -0,0 +1,82 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+/**
+ * An existence checker that consults a Bloom filter before querying another,
+ * presumably slower, checker.
+ * <p>
+ * The filter must have been built from (at least) all the IDs known to the
+ * backend checker. Any ID that the filter rejects is then reported as free
+ * without querying the backend; only the IDs that may be in use (that is, the
+ * IDs that are actually in use, plus a small proportion of false positives) are
+ * forwarded to the backend for a definitive answer.
+ * <p>
+ * IDs that do not conform to the expected format cannot be looked up in the
+ * filter, and are always forwarded to the backend.
+ */
+public class BloomFilterExistenceChecker implements IExistenceChecker, IIntExistenceChecker {
+
+    private IExistenceChecker backend;
+    private IIntExistenceChecker intBackend;
+    private IDFormat format;
+    private IDBloomFilter filter;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param backend The checker to query for IDs that may be in use.
+     * @param format  The format of the IDs to check.
+     * @param filter  The filter containing all the IDs known to the backend.
+     */
+    public BloomFilterExistenceChecker(IExistenceChecker backend, IDFormat format, IDBloomFilter filter) {
+        this.backend = backend;
+        this.intBackend = IIntExistenceChecker.fromChecker(backend, format);
+        this.format = format;
+        this.filter = filter;
+    }
+
+    /**
+     * Gets the filter used by this checker.
+     * 
+     * @return The Bloom filter.
+     */
+    public IDBloomFilter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public boolean exists(String id) {
+        int n = format.parse(id);
+        if ( n != -1 && !filter.mightContain(n) ) {
+            return false;
+        }
+        return backend.exists(id);
+    }
+
+    @Override
+    public boolean exists(int n) {
+        return filter.mightContain(n) && intBackend.exists(n);
+    }
+
+    @Override
+    public IDFormat getFormat() {
+        return format;
+    }
+}
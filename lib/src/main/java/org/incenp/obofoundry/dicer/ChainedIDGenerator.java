@@ -0,0 +1,113 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates numerical IDs sequentially across several ranges.
+ * <p>
+ * This generator generates IDs from the first of its ranges until that range
+ * is exhausted, then moves on to the next range, and so on. It is intended for
+ * users that have been allocated several ranges in a policy (see
+ * {@link IDPolicy#getRanges(String)}).
+ * <p>
+ * If the existence checker is a {@link IIntExistenceChecker}, the first free
+ * ID of each range is looked up with
+ * {@link IIntExistenceChecker#nextFree(int, int)} when the generator moves on
+ * to that range, and a range that is already full is skipped altogether. With
+ * a {@link UsedIDIndex} (or a {@link TieredExistenceChecker} made of such
+ * indexes), this does not require checking any individual ID. Ranges are never
+ * looked at before the generator needs them.
+ */
+public class ChainedIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    private List<IDRange> ranges;
+    private IExistenceChecker checker;
+    private int current = -1;
+    private SequentialIDGenerator generator;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param ranges  The ranges to generate IDs from, in the order in which they
+     *                should be used. They must all belong to the same policy.
+     * @param checker An object to check whether a given ID already exists.
+     */
+    public ChainedIDGenerator(List<IDRange> ranges, IExistenceChecker checker) {
+        this.ranges = new ArrayList<>(ranges);
+        this.checker = checker;
+    }
+
+    /**
+     * Gets the range the generator is currently generating IDs from.
+     * 
+     * @return The current range, or {@code null} if the generator has not
+     *         generated any ID yet or if all ranges are exhausted.
+     */
+    public IDRange getCurrentRange() {
+        return generator != null ? ranges.get(current) : null;
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        int n = nextNumber();
+        return ranges.get(current).getIDFormat().format(n);
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        while ( true ) {
+            if ( generator == null ) {
+                if ( current + 1 >= ranges.size() ) {
+                    current = ranges.size();
+                    throw new IDNotFoundException("No available ID in any range");
+                }
+                IDRange range = ranges.get(++current);
+                int start = range.getLowerBound();
+                if ( checker instanceof IIntExistenceChecker ) {
+                    start = IIntExistenceChecker.fromChecker(checker, range.getIDFormat()).nextFree(start,
+                            range.getUpperBound());
+                    if ( start == -1 ) {
+                        continue;
+                    }
+                }
+                generator = new SequentialIDGenerator(range.getIDFormat(), start, range.getUpperBound(), checker);
+            }
+            try {
+                return generator.nextNumber();
+            } catch ( IDNotFoundException e ) {
+                generator = null;
+            }
+        }
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        ArrayList<String> ids = new ArrayList<>(count);
+        for ( int i = 0; i < count; i++ ) {
+            ids.add(nextID());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates numerical IDs by claiming them in a {@link IDClaimFile}.
+ * <p>
+ * Several generators, in the same process or in different processes, may
+ * claim IDs from the same claim file concurrently; each ID is only ever issued
+ * by one of them. IDs that are found to be already in use according to the
+ * existence checker remain claimed, so that other generators do not have to
+ * check them again.
+ * <p>
+ * A given instance of this class is not thread-safe; threads that want to
+ * share a claim file should each use their own generator.
+ */
+public class ClaimingIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    private IDFormat format;
+    private IDClaimFile claims;
+    private IIntExistenceChecker checker;
+    private int cursor;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param format  The format of newly generated IDs.
+     * @param claims  The claim file to claim IDs from. The generated IDs are
+     *                within the range covered by that file.
+     * @param checker An object to check whether a given ID already exists.
+     */
+    public ClaimingIDGenerator(IDFormat format, IDClaimFile claims, IExistenceChecker checker) {
+        this.format = format;
+        this.claims = claims;
+        this.checker = IIntExistenceChecker.fromChecker(checker, format);
+        cursor = claims.getLowerBound();
+    }
+
+    /**
+     * Creates a new instance from a IDRange object.
+     * 
+     * @param range   The ID policy range for which to generate IDs.
+     * @param claims  The claim file to claim IDs from. It must cover the same
+     *                range.
+     * @param checker An object to check whether a given ID already exists.
+     * @throws IllegalArgumentException If the claim file does not cover the
+     *                                  range.
+     */
+    public ClaimingIDGenerator(IDRange range, IDClaimFile claims, IExistenceChecker checker) {
+        this(range.getIDFormat(), claims, checker);
+        if ( claims.getLowerBound() != range.getLowerBound() || claims.getUpperBound() != range.getUpperBound() ) {
+            throw new IllegalArgumentException("Claim file does not match the range");
+        }
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return format.format(nextNumber());
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        while ( true ) {
+            int n = claims.claimNext(cursor);
+            if ( n == -1 ) {
+                cursor = claims.getUpperBound();
+                throw new IDNotFoundException("No available ID in range");
+            }
+            cursor = n + 1;
+            if ( !checker.exists(n) ) {
+                return n;
+            }
+        }
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = new char[format.getMaxLength()];
+        for ( int i = 0; i < count; i++ ) {
+            ids.add(new String(buffer, 0, format.format(nextNumber(), buffer, 0)));
+        }
+        return ids;
+    }
+}
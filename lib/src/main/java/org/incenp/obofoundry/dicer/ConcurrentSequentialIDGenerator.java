@@ -0,0 +1,131 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates numerical IDs sequentially within a given range, and can safely be
+ * shared between several threads.
+ * <p>
+ * This class is a thread-safe counterpart of {@link SequentialIDGenerator}.
+ * Candidate IDs are claimed with an atomic counter, so that a given candidate
+ * is only ever considered by a single thread; the existence checker is then
+ * called outside of any lock. The generator therefore never produces the same
+ * ID twice, even under contention, provided that the existence checker itself
+ * is thread-safe.
+ */
+public class ConcurrentSequentialIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    private IDFormat format;
+    private AtomicInteger cursor;
+    private int upperBound;
+    private IIntExistenceChecker checker;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param format  The format of newly generated IDs.
+     * @param min     The lower bound (inclusive) for newly generated IDs.
+     * @param max     The upper bound (exclusive) for newly generated IDs.
+     * @param checker An object to check whether a given ID already exists. It must
+     *                be safe to call from several threads concurrently.
+     */
+    public ConcurrentSequentialIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker) {
+        if ( min < 0 || max <= min ) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        this.format = format;
+        this.checker = IIntExistenceChecker.fromChecker(checker, format);
+        cursor = new AtomicInteger(min);
+        upperBound = max;
+    }
+
+    /**
+     * Creates a new instance from a IDRange object.
+     * 
+     * @param range   The ID policy range for which to generate IDs.
+     * @param checker An object to check whether a given ID already exists. It must
+     *                be safe to call from several threads concurrently.
+     */
+    public ConcurrentSequentialIDGenerator(IDRange range, IExistenceChecker checker) {
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker);
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return format.format(nextNumber());
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        int n;
+        while ( (n = claim(1)) != -1 ) {
+            if ( !checker.exists(n) ) {
+                return n;
+            }
+        }
+        throw new IDNotFoundException("No available ID in range");
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+
+        // Claim candidates in blocks, so that a batch only touches the shared
+        // counter once if none of the candidates is already in use.
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = new char[format.getMaxLength()];
+        while ( ids.size() < count ) {
+            int needed = count - ids.size();
+            int start = claim(needed);
+            if ( start == -1 ) {
+                throw new IDNotFoundException("No available ID in range");
+            }
+            int end = (int) Math.min((long) start + needed, upperBound);
+            for ( int n = start; n < end; n++ ) {
+                if ( !checker.exists(n) ) {
+                    ids.add(new String(buffer, 0, format.format(n, buffer, 0)));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /*
+     * Atomically claims up to `count` consecutive candidates. Returns the first
+     * claimed candidate, or -1 if the range is exhausted.
+     */
+    private int claim(int count) {
+        while ( true ) {
+            int current = cursor.get();
+            if ( current >= upperBound ) {
+                return -1;
+            }
+            int next = (int) Math.min((long) current + count, upperBound);
+            if ( cursor.compareAndSet(current, next) ) {
+                return current;
+            }
+        }
+    }
+}
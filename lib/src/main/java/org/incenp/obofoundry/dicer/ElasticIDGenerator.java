@@ -0,0 +1,164 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates numerical IDs sequentially within a range that grows when it is
+ * exhausted.
+ * <p>
+ * When all the IDs in its range are used, this generator first tries to extend
+ * the range into the unallocated space immediately after it. If that space is
+ * not free, it allocates a new range (an “overflow range”) to the same user,
+ * anywhere in the policy where there is enough room. In both cases, the range
+ * grows by a fixed increment, and the updated policy is immediately written
+ * back to its file.
+ * <p>
+ * While the policy file is read again, modified, and written back, an
+ * exclusive lock is held on a sidecar file (the name of the policy file with a
+ * {@code .lock} extension appended), so that several processes growing ranges
+ * in the same policy at the same time cannot overwrite each other's changes.
+ */
+public class ElasticIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    // File locks are held on behalf of the whole JVM, so they do not protect
+    // against other threads of the same process.
+    private static final Object POLICY_LOCK = new Object();
+
+    private IDRange range;
+    private IExistenceChecker checker;
+    private int increment;
+    private String policyFile;
+    private SequentialIDGenerator generator;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param range      The ID policy range for which to generate IDs.
+     * @param checker    An object to check whether a given ID already exists.
+     * @param increment  The number of IDs to add whenever the range is exhausted.
+     * @param policyFile The file the policy should be written to after it has been
+     *                   modified. If not {@code null}, the policy is also read
+     *                   again from that file before being modified, to take into
+     *                   account any change made by other users since the policy
+     *                   was first read. May be {@code null}, in which case the
+     *                   policy is only modified in memory.
+     */
+    public ElasticIDGenerator(IDRange range, IExistenceChecker checker, int increment, String policyFile) {
+        if ( increment < 1 ) {
+            throw new IllegalArgumentException("Invalid range increment");
+        }
+        this.range = range;
+        this.checker = checker;
+        this.increment = increment;
+        this.policyFile = policyFile;
+        generator = new SequentialIDGenerator(range, checker);
+    }
+
+    /**
+     * Gets the range the generator is currently generating IDs from. This may
+     * be a different range than the one the generator was created with, if an
+     * overflow range had to be allocated.
+     * 
+     * @return The current range.
+     */
+    public IDRange getCurrentRange() {
+        return range;
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return range.getIDFormat().format(nextNumber());
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        while ( true ) {
+            try {
+                return generator.nextNumber();
+            } catch ( IDNotFoundException e ) {
+                grow();
+            }
+        }
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        ArrayList<String> ids = new ArrayList<>(count);
+        IDFormat format = range.getIDFormat();
+        for ( int i = 0; i < count; i++ ) {
+            ids.add(format.format(nextNumber()));
+        }
+        return ids;
+    }
+
+    private void grow() throws IDNotFoundException {
+        try {
+            if ( policyFile != null ) {
+                synchronized ( POLICY_LOCK ) {
+                    try ( FileChannel channel = FileChannel.open(Paths.get(policyFile + ".lock"),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE) ) {
+                        FileLock lock = channel.lock();
+                        try {
+                            IDPolicy policy = new IDPolicyReader().read(policyFile);
+                            IDRange current = policy.findRangeByID(range.getID()).orElseThrow(
+                                    () -> new IDRangeNotFoundException("Range %d removed from policy", range.getID()));
+                            current = grow(policy, current);
+                            new IDPolicyWriter().writeAtomically(policy, policyFile);
+                            range = current;
+                        } finally {
+                            lock.release();
+                        }
+                    }
+                }
+            } else {
+                range = grow(range.getPolicy(), range);
+            }
+        } catch ( IDRangeNotFoundException | InvalidIDPolicyException | IOException e ) {
+            throw new IDNotFoundException("Cannot grow range %d: %s", range.getID(), e.getMessage());
+        }
+    }
+
+    /*
+     * Extends the current range or allocates an overflow range, and sets up the
+     * generator accordingly. Returns the range to generate IDs from.
+     */
+    private IDRange grow(IDPolicy policy, IDRange current) throws IDRangeNotFoundException {
+        int start = current.getUpperBound();
+        try {
+            policy.extendRange(current, increment);
+            generator = new SequentialIDGenerator(current.getIDFormat(), start, current.getUpperBound(), checker);
+        } catch ( IDRangeNotFoundException e ) {
+            String comment = String.format("Overflow of range %d", current.getID());
+            current = policy.addRange(current.getName(), comment, increment);
+            generator = new SequentialIDGenerator(current, checker);
+        }
+        return current;
+    }
+}
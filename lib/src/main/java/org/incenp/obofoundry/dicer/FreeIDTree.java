@@ -0,0 +1,193 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+/**
+ * A set of the free numerical IDs within a range, supporting rank and select
+ * queries.
+ * <p>
+ * The set is represented as a bitmap of used IDs, divided into blocks of 4,096
+ * IDs; a Fenwick tree maintains the number of free IDs in each block. This
+ * allows to find the k-th free ID in the range, and to mark an ID as used, in
+ * logarithmic time regardless of how many IDs are already used. Memory usage is
+ * about one bit per ID in the range.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class FreeIDTree {
+
+    private static final int WORDS_PER_BLOCK = 64;
+    private static final int IDS_PER_BLOCK = WORDS_PER_BLOCK * 64;
+
+    private int lowerBound;
+    private int size;
+    private long[] used;
+    private int[] tree;
+    private int free;
+
+    /**
+     * Creates a new instance where all IDs in the range are free.
+     * 
+     * @param min The lower bound (inclusive) of the range.
+     * @param max The upper bound (exclusive) of the range.
+     */
+    public FreeIDTree(int min, int max) {
+        if ( min < 0 || max <= min ) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        lowerBound = min;
+        size = max - min;
+        used = new long[(size + 63) / 64];
+        free = size;
+        if ( (size & 63) != 0 ) {
+            // Mark the bits beyond the end of the range as used.
+            used[used.length - 1] = -1L << size;
+        }
+
+        // Linear-time construction of the Fenwick tree, each block being initially
+        // full of free IDs (except possibly the last one).
+        int blocks = (size + IDS_PER_BLOCK - 1) / IDS_PER_BLOCK;
+        tree = new int[blocks + 1];
+        for ( int i = 1; i <= blocks; i++ ) {
+            tree[i] += Math.min(IDS_PER_BLOCK, size - (i - 1) * IDS_PER_BLOCK);
+            int parent = i + (i & -i);
+            if ( parent <= blocks ) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance from an index of used IDs.
+     * 
+     * @param min   The lower bound (inclusive) of the range.
+     * @param max   The upper bound (exclusive) of the range.
+     * @param index The index of IDs already in use.
+     */
+    public FreeIDTree(int min, int max, UsedIDIndex index) {
+        this(min, max);
+        IDBitmap bitmap = index.getBitmap();
+        for ( int n = bitmap.nextSetBit(min); n != -1 && n < max; n = bitmap.nextSetBit(n + 1) ) {
+            markUsed(n);
+        }
+    }
+
+    /**
+     * Gets the number of free IDs left in the range.
+     * 
+     * @return The number of free IDs.
+     */
+    public int countFree() {
+        return free;
+    }
+
+    /**
+     * Checks whether a numerical ID is free.
+     * 
+     * @param n The numerical ID to check.
+     * @return {@code true} if the ID is within the range and is free.
+     */
+    public boolean isFree(int n) {
+        int i = n - lowerBound;
+        return i >= 0 && i < size && (used[i >>> 6] & (1L << i)) == 0;
+    }
+
+    /**
+     * Marks a numerical ID as used.
+     * 
+     * @param n The numerical ID to mark.
+     * @return {@code true} if the ID was within the range and was free.
+     */
+    public boolean markUsed(int n) {
+        if ( !isFree(n) ) {
+            return false;
+        }
+        int i = n - lowerBound;
+        used[i >>> 6] |= 1L << i;
+        free -= 1;
+        for ( int b = i / IDS_PER_BLOCK + 1; b < tree.length; b += b & -b ) {
+            tree[b] -= 1;
+        }
+        return true;
+    }
+
+    /**
+     * Counts the free IDs that are lower than the given ID.
+     * 
+     * @param n The numerical ID to compare against.
+     * @return The number of free IDs in the range that are strictly lower than
+     *         {@code n}.
+     */
+    public int rank(int n) {
+        int i = Math.min(Math.max(n - lowerBound, 0), size);
+        int block = i / IDS_PER_BLOCK;
+        int count = 0;
+        for ( int b = block; b > 0; b -= b & -b ) {
+            count += tree[b];
+        }
+        int w = block * WORDS_PER_BLOCK;
+        for ( ; w < i >>> 6; w++ ) {
+            count += 64 - Long.bitCount(used[w]);
+        }
+        if ( (i & 63) != 0 ) {
+            count += Long.bitCount(~used[w] & ((1L << i) - 1));
+        }
+        return count;
+    }
+
+    /**
+     * Finds the k-th free ID in the range.
+     * 
+     * @param k The rank of the free ID to find (starting from 0).
+     * @return The k-th free ID.
+     * @throws IndexOutOfBoundsException If there are not more than {@code k} free
+     *                                   IDs in the range.
+     */
+    public int select(int k) {
+        if ( k < 0 || k >= free ) {
+            throw new IndexOutOfBoundsException("Invalid free ID rank");
+        }
+
+        // Descend the Fenwick tree to find the block containing the k-th free ID.
+        int block = 0;
+        for ( int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1 ) {
+            int next = block + step;
+            if ( next < tree.length && tree[next] <= k ) {
+                block = next;
+                k -= tree[next];
+            }
+        }
+
+        // Then scan the words of that block.
+        int w = block * WORDS_PER_BLOCK;
+        long word = ~used[w];
+        int count = Long.bitCount(word);
+        while ( count <= k ) {
+            k -= count;
+            word = ~used[++w];
+            count = Long.bitCount(word);
+        }
+
+        // And finally find the k-th clear bit within the word.
+        for ( int j = 0; j < k; j++ ) {
+            word &= word - 1;
+        }
+        return lowerBound + (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -18,6 +18,9 @@
 
 package org.incenp.obofoundry.dicer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * An object that generates automatic IDs for ontological entities.
  */
@@ -31,4 +34,28 @@ public interface IAutoIDGenerator {
      *                             reason.
      */
     public String nextID() throws IDNotFoundException;
+
+    /**
+     * Generates several new automatic IDs at once.
+     * <p>
+     * The default implementation merely calls {@link #nextID()} repeatedly.
+     * Implementations are expected to override it whenever they can produce a
+     * block of IDs more efficiently than one at a time.
+     * 
+     * @param count The number of IDs to generate.
+     * @return A list of {@code count} newly generated IDs, in the order they have
+     *         been generated.
+     * @throws IDNotFoundException If the generator cannot generate as many IDs as
+     *                             requested.
+     */
+    public default List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        ArrayList<String> ids = new ArrayList<>(count);
+        for ( int i = 0; i < count; i++ ) {
+            ids.add(nextID());
+        }
+        return ids;
+    }
 }
@@ -0,0 +1,652 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative integers, used to keep track of numerical
+ * IDs.
+ * <p>
+ * This is a simplified version of a “Roaring” bitmap: the integer space is
+ * divided into chunks of 65,536 values, and each chunk that contains at least
+ * one value is represented either by a sorted array of 16-bit values (when the
+ * chunk is sparse) or by a plain bitmap (when the chunk is dense). Memory usage
+ * is therefore proportional to the number of values in the set, and never
+ * exceeds 8 kB per chunk, so that even a set covering the entire 9-digit ID
+ * space remains small.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class IDBitmap {
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size = 0;
+
+    /**
+     * Creates a new empty set.
+     */
+    public IDBitmap() {
+    }
+
+    /**
+     * Adds a value to the set.
+     * 
+     * @param value The value to add.
+     * @return {@code true} if the value was not already in the set.
+     */
+    public boolean add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int i = findKey(key);
+        if ( i < 0 ) {
+            i = -i - 1;
+            insertContainer(i, key, new ArrayContainer());
+        }
+        Container c = containers[i];
+        boolean added = c.add((char) value);
+        if ( added && c instanceof ArrayContainer && c.cardinality > ArrayContainer.MAX_SIZE ) {
+            containers[i] = ((ArrayContainer) c).toBitmap();
+        }
+        return added;
+    }
+
+    /**
+     * Adds all the values in the given interval to the set.
+     * 
+     * @param from The lower bound (inclusive) of the interval.
+     * @param to   The upper bound (exclusive) of the interval.
+     */
+    public void addRange(int from, int to) {
+        for ( int i = from; i < to; i++ ) {
+            add(i);
+        }
+    }
+
+    /**
+     * Adds all the values from another set to this set.
+     * 
+     * @param other The set whose values should be added.
+     */
+    public void addAll(IDBitmap other) {
+        for ( int i = 0; i < other.size; i++ ) {
+            int base = other.keys[i] << 16;
+            other.containers[i].forEach((low) -> add(base | low));
+        }
+    }
+
+    /**
+     * Removes a value from the set.
+     * 
+     * @param value The value to remove.
+     * @return {@code true} if the value was in the set.
+     */
+    public boolean remove(int value) {
+        if ( value < 0 ) {
+            return false;
+        }
+        int i = findKey((char) (value >>> 16));
+        if ( i < 0 ) {
+            return false;
+        }
+        Container c = containers[i];
+        boolean removed = c.remove((char) value);
+        if ( c.cardinality == 0 ) {
+            removeContainer(i);
+        } else if ( removed && c instanceof BitmapContainer && c.cardinality <= ArrayContainer.MAX_SIZE ) {
+            containers[i] = ((BitmapContainer) c).toArray();
+        }
+        return removed;
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     * 
+     * @param value The value to check.
+     * @return {@code true} if the value is in the set, otherwise {@code false}.
+     */
+    public boolean contains(int value) {
+        if ( value < 0 ) {
+            return false;
+        }
+        int i = findKey((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    /**
+     * Gets the number of values in the set.
+     * 
+     * @return The set cardinality.
+     */
+    public int cardinality() {
+        int n = 0;
+        for ( int i = 0; i < size; i++ ) {
+            n += containers[i].cardinality;
+        }
+        return n;
+    }
+
+    /**
+     * Counts the values of the set that are within the given interval.
+     * 
+     * @param from The lower bound (inclusive) of the interval.
+     * @param to   The upper bound (exclusive) of the interval.
+     * @return The number of values in the set that are within the interval.
+     */
+    public int cardinality(int from, int to) {
+        return to <= from ? 0 : rank(to) - rank(from);
+    }
+
+    /**
+     * Checks whether the set is empty.
+     * 
+     * @return {@code true} if the set does not contain any value.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Counts the values of the set that are strictly lower than the given value.
+     * 
+     * @param value The value to compare the values of the set against.
+     * @return The number of values lower than {@code value}.
+     */
+    public int rank(int value) {
+        if ( value <= 0 ) {
+            return 0;
+        }
+        char key = (char) (value >>> 16);
+        int n = 0;
+        for ( int i = 0; i < size && keys[i] <= key; i++ ) {
+            if ( keys[i] < key ) {
+                n += containers[i].cardinality;
+            } else {
+                n += containers[i].rank((char) value);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Finds the lowest value that is not in the set, starting from the given
+     * value.
+     * 
+     * @param from The value to start searching from.
+     * @return The lowest value greater than or equal to {@code from} that is not
+     *         in the set, or -1 if all values from {@code from} up to
+     *         {@link Integer#MAX_VALUE} are in the set.
+     */
+    public int nextClearBit(int from) {
+        checkValue(from);
+        int i = findKey((char) (from >>> 16));
+        if ( i < 0 ) {
+            return from;
+        }
+
+        int low = from & 0xFFFF;
+        while ( i < size ) {
+            int next = containers[i].nextAbsent(low);
+            if ( next != -1 ) {
+                return (keys[i] << 16) | next;
+            }
+            // The chunk is full from `low` onwards; check whether the next chunk
+            // immediately follows it.
+            int nextKey = keys[i] + 1;
+            if ( nextKey > 0x7FFF ) {
+                return -1;
+            }
+            if ( i + 1 == size || keys[i + 1] != nextKey ) {
+                return nextKey << 16;
+            }
+            i += 1;
+            low = 0;
+        }
+        return from;
+    }
+
+    /**
+     * Finds the lowest value in the set, starting from the given value.
+     * 
+     * @param from The value to start searching from.
+     * @return The lowest value of the set that is greater than or equal to
+     *         {@code from}, or -1 if there is no such value.
+     */
+    public int nextSetBit(int from) {
+        if ( from < 0 ) {
+            from = 0;
+        }
+        char key = (char) (from >>> 16);
+        int i = findKey(key);
+        int low = from & 0xFFFF;
+        if ( i < 0 ) {
+            i = -i - 1;
+            low = 0;
+        }
+        for ( ; i < size; i++, low = 0 ) {
+            int next = containers[i].nextPresent(low);
+            if ( next != -1 ) {
+                return (keys[i] << 16) | next;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the highest value in the set, starting backwards from the given value.
+     * 
+     * @param from The value to start searching from.
+     * @return The highest value of the set that is lower than or equal to
+     *         {@code from}, or -1 if there is no such value.
+     */
+    public int previousSetBit(int from) {
+        if ( from < 0 ) {
+            return -1;
+        }
+        char key = (char) (from >>> 16);
+        int i = findKey(key);
+        int low = from & 0xFFFF;
+        if ( i < 0 ) {
+            i = -i - 2;
+            low = 0xFFFF;
+        }
+        for ( ; i >= 0; i--, low = 0xFFFF ) {
+            int prev = containers[i].previousPresent(low);
+            if ( prev != -1 ) {
+                return (keys[i] << 16) | prev;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calls the given function for each value in the set, in ascending order.
+     * 
+     * @param consumer The function to call.
+     */
+    public void forEach(IntConsumer consumer) {
+        for ( int i = 0; i < size; i++ ) {
+            int base = keys[i] << 16;
+            containers[i].forEach((low) -> consumer.accept(base | low));
+        }
+    }
+
+    /**
+     * Removes all values from the set.
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of bytes needed to serialise this set.
+     * 
+     * @return The size of the serialised form, in bytes.
+     * @see #serialize(ByteBuffer)
+     */
+    public int getSerializedSize() {
+        int n = 4;
+        for ( int i = 0; i < size; i++ ) {
+            n += 8;
+            if ( containers[i] instanceof BitmapContainer ) {
+                n += 8 * 1024;
+            } else {
+                n += 2 * containers[i].cardinality;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Writes this set into a buffer.
+     * <p>
+     * The serialised form mirrors the in-memory layout (the list of non-empty
+     * chunks, each one either as a sorted array of values or as a bitmap), so
+     * that the set can be read back without having to re-insert each value
+     * individually.
+     * 
+     * @param buffer The buffer to write into. It must have at least
+     *               {@link #getSerializedSize()} bytes remaining.
+     */
+    public void serialize(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for ( int i = 0; i < size; i++ ) {
+            Container c = containers[i];
+            buffer.putChar(keys[i]);
+            buffer.putChar(c instanceof BitmapContainer ? 'B' : 'A');
+            buffer.putInt(c.cardinality);
+            if ( c instanceof BitmapContainer ) {
+                buffer.asLongBuffer().put(((BitmapContainer) c).words);
+                buffer.position(buffer.position() + 8 * 1024);
+            } else {
+                buffer.asCharBuffer().put(((ArrayContainer) c).values, 0, c.cardinality);
+                buffer.position(buffer.position() + 2 * c.cardinality);
+            }
+        }
+    }
+
+    /**
+     * Reads a set previously written with {@link #serialize(ByteBuffer)}.
+     * 
+     * @param buffer The buffer to read from. Upon return, its position is
+     *               immediately after the serialised set.
+     * @return The set read from the buffer.
+     * @throws IllegalArgumentException If the buffer does not contain a valid
+     *                                  serialised set.
+     */
+    public static IDBitmap deserialize(ByteBuffer buffer) {
+        IDBitmap bitmap = new IDBitmap();
+        try {
+            int n = buffer.getInt();
+            if ( n < 0 || n > 0x8000 ) {
+                throw new IllegalArgumentException("Invalid number of chunks");
+            }
+            bitmap.keys = new char[Math.max(n, 4)];
+            bitmap.containers = new Container[Math.max(n, 4)];
+            for ( int i = 0; i < n; i++ ) {
+                char key = buffer.getChar();
+                char type = buffer.getChar();
+                int cardinality = buffer.getInt();
+                if ( (i > 0 && key <= bitmap.keys[i - 1]) || cardinality < 1 || cardinality > 0x10000 ) {
+                    throw new IllegalArgumentException("Invalid chunk header");
+                }
+
+                Container c;
+                if ( type == 'B' ) {
+                    BitmapContainer bc = new BitmapContainer();
+                    buffer.asLongBuffer().get(bc.words);
+                    buffer.position(buffer.position() + 8 * 1024);
+                    c = bc;
+                } else if ( type == 'A' && cardinality <= ArrayContainer.MAX_SIZE ) {
+                    ArrayContainer ac = new ArrayContainer();
+                    ac.values = new char[cardinality];
+                    buffer.asCharBuffer().get(ac.values);
+                    buffer.position(buffer.position() + 2 * cardinality);
+                    c = ac;
+                } else {
+                    throw new IllegalArgumentException("Invalid chunk type");
+                }
+                c.cardinality = cardinality;
+                bitmap.keys[i] = key;
+                bitmap.containers[i] = c;
+                bitmap.size += 1;
+            }
+        } catch ( BufferUnderflowException e ) {
+            throw new IllegalArgumentException("Truncated bitmap");
+        }
+        return bitmap;
+    }
+
+    private int findKey(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int i, char key, Container c) {
+        if ( size == keys.length ) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = c;
+        size += 1;
+    }
+
+    private void removeContainer(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    private static void checkValue(int value) {
+        if ( value < 0 ) {
+            throw new IllegalArgumentException("Invalid negative value");
+        }
+    }
+
+    /*
+     * A chunk of 65,536 values.
+     */
+    private static abstract class Container {
+        int cardinality;
+
+        abstract boolean add(char value);
+
+        abstract boolean remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int rank(char value);
+
+        abstract int nextAbsent(int from);
+
+        abstract int nextPresent(int from);
+
+        abstract int previousPresent(int from);
+
+        abstract void forEach(IntConsumer consumer);
+    }
+
+    /*
+     * A sparse chunk, stored as a sorted array of values.
+     */
+    private static class ArrayContainer extends Container {
+        static final int MAX_SIZE = 4096;
+
+        char[] values = new char[8];
+
+        @Override
+        boolean add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if ( i >= 0 ) {
+                return false;
+            }
+            i = -i - 1;
+            if ( cardinality == values.length ) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, MAX_SIZE + 1));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality += 1;
+            return true;
+        }
+
+        @Override
+        boolean remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if ( i < 0 ) {
+                return false;
+            }
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality -= 1;
+            return true;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int rank(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        @Override
+        int nextAbsent(int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if ( i < 0 ) {
+                return from;
+            }
+            // Walk the run of consecutive values starting at `from`.
+            int next = from;
+            while ( i < cardinality && values[i] == next ) {
+                i += 1;
+                next += 1;
+            }
+            return next > 0xFFFF ? -1 : next;
+        }
+
+        @Override
+        int nextPresent(int from) {
+            int i = rank((char) from);
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override
+        int previousPresent(int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if ( i < 0 ) {
+                i = -i - 2;
+            }
+            return i >= 0 ? values[i] : -1;
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for ( int i = 0; i < cardinality; i++ ) {
+                consumer.accept(values[i]);
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bc = new BitmapContainer();
+            for ( int i = 0; i < cardinality; i++ ) {
+                bc.add(values[i]);
+            }
+            return bc;
+        }
+    }
+
+    /*
+     * A dense chunk, stored as a plain bitmap.
+     */
+    private static class BitmapContainer extends Container {
+        long[] words = new long[1024];
+
+        @Override
+        boolean add(char value) {
+            long mask = 1L << value;
+            int w = value >>> 6;
+            if ( (words[w] & mask) != 0 ) {
+                return false;
+            }
+            words[w] |= mask;
+            cardinality += 1;
+            return true;
+        }
+
+        @Override
+        boolean remove(char value) {
+            long mask = 1L << value;
+            int w = value >>> 6;
+            if ( (words[w] & mask) == 0 ) {
+                return false;
+            }
+            words[w] &= ~mask;
+            cardinality -= 1;
+            return true;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int rank(char value) {
+            int w = value >>> 6;
+            int n = 0;
+            for ( int i = 0; i < w; i++ ) {
+                n += Long.bitCount(words[i]);
+            }
+            return n + Long.bitCount(words[w] & ((1L << value) - 1));
+        }
+
+        @Override
+        int nextAbsent(int from) {
+            int w = from >>> 6;
+            long word = ~words[w] & (-1L << from);
+            while ( true ) {
+                if ( word != 0 ) {
+                    return (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if ( ++w == words.length ) {
+                    return -1;
+                }
+                word = ~words[w];
+            }
+        }
+
+        @Override
+        int nextPresent(int from) {
+            int w = from >>> 6;
+            long word = words[w] & (-1L << from);
+            while ( true ) {
+                if ( word != 0 ) {
+                    return (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if ( ++w == words.length ) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+
+        @Override
+        int previousPresent(int from) {
+            int w = from >>> 6;
+            long word = words[w] & (-1L >>> (63 - (from & 63)));
+            while ( true ) {
+                if ( word != 0 ) {
+                    return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+                }
+                if ( w-- == 0 ) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for ( int w = 0; w < words.length; w++ ) {
+                long word = words[w];
+                while ( word != 0 ) {
+                    consumer.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        ArrayContainer toArray() {
+            ArrayContainer ac = new ArrayContainer();
+            ac.values = new char[cardinality];
+            forEach((v) -> ac.values[ac.cardinality++] = (char) v);
+            return ac;
+        }
+    }
+}
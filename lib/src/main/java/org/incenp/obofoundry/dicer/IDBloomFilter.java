@@ -0,0 +1,259 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A Bloom filter over numerical IDs.
+ * <p>
+ * A Bloom filter is a compact, probabilistic representation of a set: it can
+ * tell for sure that a value is <em>not</em> in the set, but it can only tell
+ * that a value <em>may</em> be in the set, with a configurable probability of
+ * false positives. It is intended to be placed in front of an expensive
+ * existence checker (see {@link BloomFilterExistenceChecker}), so that most
+ * candidate IDs (which, in a fresh range, are free) can be rejected without
+ * querying that checker.
+ * <p>
+ * A filter can be saved to a file and loaded back, so that it can be
+ * distributed alongside the ontology it was built from.
+ * <p>
+ * This class is not thread-safe while values are being added; once it is
+ * complete, it can be queried from several threads.
+ */
+public class IDBloomFilter {
+
+    private static final int MAGIC = 0x44424C4D; // "DBLM"
+    private static final int VERSION = 1;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final int READ_CHUNK = 8192;
+
+    private long[] words;
+    private long numBits;
+    private int numHashes;
+
+    private IDBloomFilter(long numBits, int numHashes) {
+        this(numBits, numHashes, new long[(int) ((numBits + 63) / 64)]);
+    }
+
+    private IDBloomFilter(long numBits, int numHashes, long[] words) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.words = words;
+    }
+
+    /**
+     * Creates a new empty filter.
+     * 
+     * @param expectedCount     The number of values the filter is expected to
+     *                          contain.
+     * @param falsePositiveRate The desired probability of false positives once
+     *                          the filter contains {@code expectedCount} values,
+     *                          between 0 and 1 (exclusive).
+     * @return The new filter.
+     * @throws IllegalArgumentException If either parameter is out of bounds.
+     */
+    public static IDBloomFilter create(int expectedCount, double falsePositiveRate) {
+        if ( expectedCount < 0 ) {
+            throw new IllegalArgumentException("Invalid negative expected count");
+        }
+        if ( !(falsePositiveRate > 0 && falsePositiveRate < 1) ) {
+            throw new IllegalArgumentException("False positive rate out of bounds");
+        }
+
+        // Standard optimal sizing: m = -n ln(p) / (ln 2)^2, k = (m / n) ln 2
+        int n = Math.max(expectedCount, 1);
+        double ln2 = Math.log(2);
+        long numBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        numBits = Math.max(64, Math.min(numBits, 64L * Integer.MAX_VALUE / 2));
+        int numHashes = (int) Math.max(1, Math.round((double) numBits / n * ln2));
+        return new IDBloomFilter(numBits, Math.min(numHashes, 30));
+    }
+
+    /**
+     * Creates a new filter containing all the values of a set.
+     * 
+     * @param values            The values to add to the filter.
+     * @param falsePositiveRate The desired probability of false positives.
+     * @return The new filter.
+     */
+    public static IDBloomFilter fromBitmap(IDBitmap values, double falsePositiveRate) {
+        IDBloomFilter filter = create(values.cardinality(), falsePositiveRate);
+        values.forEach(filter::add);
+        return filter;
+    }
+
+    /**
+     * Gets the number of bits in this filter.
+     * 
+     * @return The size of the filter, in bits.
+     */
+    public long getBitCount() {
+        return numBits;
+    }
+
+    /**
+     * Gets the number of hash functions used by this filter.
+     * 
+     * @return The number of bits set for each value.
+     */
+    public int getHashCount() {
+        return numHashes;
+    }
+
+    /**
+     * Adds a value to the filter.
+     * 
+     * @param n The value to add.
+     */
+    public void add(int n) {
+        long hash = n;
+        for ( int i = 0; i < numHashes; i++ ) {
+            hash = mix(hash + GOLDEN_GAMMA);
+            long bit = Long.remainderUnsigned(hash, numBits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether a value may be in the filter.
+     * 
+     * @param n The value to check.
+     * @return {@code false} if the value is definitely not in the filter;
+     *         {@code true} if it may be.
+     */
+    public boolean mightContain(int n) {
+        long hash = n;
+        for ( int i = 0; i < numHashes; i++ ) {
+            hash = mix(hash + GOLDEN_GAMMA);
+            long bit = Long.remainderUnsigned(hash, numBits);
+            if ( (words[(int) (bit >>> 6)] & (1L << bit)) == 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes this filter to a stream.
+     * 
+     * @param stream The stream to write to. It is not closed.
+     * @throws IOException If any I/O error occurs when writing.
+     */
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(numBits);
+        out.writeInt(numHashes);
+        for ( long word : words ) {
+            out.writeLong(word);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes this filter to a file.
+     * 
+     * @param file The file to write to.
+     * @throws IOException If any I/O error occurs when writing.
+     */
+    public void save(Path file) throws IOException {
+        try ( OutputStream stream = Files.newOutputStream(file) ) {
+            write(stream);
+        }
+    }
+
+    /**
+     * Reads a filter previously written with {@link #write(OutputStream)}.
+     * 
+     * @param stream The stream to read from. It is not closed.
+     * @return The filter.
+     * @throws IOException If any I/O error occurs when reading, or if the stream
+     *                     does not contain a valid filter.
+     */
+    public static IDBloomFilter read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if ( in.readInt() != MAGIC ) {
+            throw new IOException("Not a Dicer Bloom filter");
+        }
+        if ( in.readInt() != VERSION ) {
+            throw new IOException("Unsupported Bloom filter version");
+        }
+        long numBits = in.readLong();
+        int numHashes = in.readInt();
+        if ( numBits < 64 || numBits > 64L * Integer.MAX_VALUE / 2 || numHashes < 1 || numHashes > 30 ) {
+            throw new IOException("Invalid Bloom filter parameters");
+        }
+
+        // The size comes from the header, which cannot be trusted: grow the array
+        // as the data is read, so that a truncated or forged stream fails before
+        // the whole array is allocated.
+        int wordCount = (int) ((numBits + 63) / 64);
+        long[] words = new long[Math.min(wordCount, READ_CHUNK)];
+        try {
+            for ( int i = 0; i < wordCount; i++ ) {
+                if ( i == words.length ) {
+                    words = Arrays.copyOf(words, (int) Math.min(wordCount, 2L * words.length));
+                }
+                words[i] = in.readLong();
+            }
+        } catch ( EOFException e ) {
+            throw new IOException("Truncated Bloom filter");
+        }
+        return new IDBloomFilter(numBits, numHashes, words);
+    }
+
+    /**
+     * Reads a filter from a file.
+     * 
+     * @param file The file to read from.
+     * @return The filter.
+     * @throws IOException If any I/O error occurs when reading, or if the file
+     *                     does not contain a valid filter.
+     */
+    public static IDBloomFilter load(Path file) throws IOException {
+        try ( InputStream stream = Files.newInputStream(file) ) {
+            return read(stream);
+        }
+    }
+
+    /*
+     * The finalisation step of the 64-bit MurmurHash3. Each of the k bit positions
+     * for a value is obtained by chaining this function (as in SplitMix64), rather
+     * than by the usual double hashing, which correlates badly when the number of
+     * bits is small or not a prime.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
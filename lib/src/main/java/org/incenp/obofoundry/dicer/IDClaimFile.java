@@ -0,0 +1,270 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file-backed bitmap of claimed IDs, shared between processes.
+ * <p>
+ * The file contains one bit per ID in a range. It is mapped in memory, and bits
+ * are set with atomic compare-and-set operations directly on the mapped pages,
+ * so that several processes (or several threads) can claim IDs from the same
+ * range concurrently without any lock and without ever claiming the same ID
+ * twice. Since claims are written to the shared mapping, they persist even if
+ * the process that made them crashes; {@link #sync()} additionally forces them
+ * to stable storage, so that they also survive a system crash.
+ * <p>
+ * A lock on the file is only taken when the file is opened, to make sure it is
+ * initialised only once.
+ */
+public class IDClaimFile implements Closeable {
+
+    private static final long MAGIC = 0x44494352434c4d31L; // "DICRCLM1"
+    private static final int HEADER_SIZE = 64;
+    // A fixed byte order, so that the file can be shared between hosts.
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, BYTE_ORDER);
+
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int lowerBound;
+    private int upperBound;
+
+    private IDClaimFile(FileChannel channel, MappedByteBuffer map, int lowerBound, int upperBound) {
+        this.channel = channel;
+        this.map = map;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Opens a claim file for the given range, creating it if needed.
+     * 
+     * @param file The claim file.
+     * @param min  The lower bound (inclusive) of the range.
+     * @param max  The upper bound (exclusive) of the range.
+     * @return The opened claim file.
+     * @throws IOException If any I/O error occurs, or if the file already exists
+     *                     but is not a claim file for the same range.
+     */
+    public static IDClaimFile open(Path file, int min, int max) throws IOException {
+        if ( min < 0 || max <= min ) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        long words = ((long) max - min + 63) / 64;
+        long length = HEADER_SIZE + words * 8;
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer header = ByteBuffer.allocate(16).order(BYTE_ORDER);
+                while ( header.hasRemaining() && channel.read(header, header.position()) != -1 ) {
+                }
+                header.flip();
+                long size = channel.size();
+                if ( size == 0 ) {
+                    initialise(channel, min, max, length);
+                } else if ( size == length && header.getLong(0) == 0 && isInterrupted(header, min, max) ) {
+                    // A previous initialisation that did not complete (the file is
+                    // extended first and the magic number is written last).
+                    initialise(channel, min, max, length);
+                } else {
+                    if ( header.remaining() < 16 || header.getLong() != MAGIC ) {
+                        throw new IOException("Not a Dicer ID claim file");
+                    }
+                    if ( header.getInt() != min || header.getInt() != max || size != length ) {
+                        throw new IOException("Claim file does not match the requested range");
+                    }
+                }
+            } finally {
+                lock.release();
+            }
+
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new IDClaimFile(channel, map, min, max);
+        } catch ( IOException e ) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /*
+     * Checks whether a header without magic number is what an interrupted
+     * initialisation for the same range would have left behind: either nothing,
+     * or the range bounds.
+     */
+    private static boolean isInterrupted(ByteBuffer header, int min, int max) {
+        int lower = header.getInt(8);
+        int upper = header.getInt(12);
+        return (lower == 0 && upper == 0) || (lower == min && upper == max);
+    }
+
+    /*
+     * Extends the file to its full size (the bitmap is initially filled with
+     * zeros) and writes the header, with the magic number last, so that a crash
+     * at any point leaves a file that is recognised as not initialised.
+     */
+    private static void initialise(FileChannel channel, int min, int max, long length) throws IOException {
+        channel.write(ByteBuffer.allocate(1), length - 1);
+        ByteBuffer header = ByteBuffer.allocate(8).order(BYTE_ORDER);
+        header.putInt(min).putInt(max).flip();
+        while ( header.hasRemaining() ) {
+            channel.write(header, 8 + header.position());
+        }
+        channel.force(true);
+
+        header = ByteBuffer.allocate(8).order(BYTE_ORDER);
+        header.putLong(MAGIC).flip();
+        while ( header.hasRemaining() ) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Gets the lower bound (inclusive) of the range covered by this file.
+     * 
+     * @return The range's lower bound.
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Gets the upper bound (exclusive) of the range covered by this file.
+     * 
+     * @return The range's upper bound.
+     */
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Checks whether an ID has been claimed.
+     * 
+     * @param n The numerical ID to check.
+     * @return {@code true} if the ID has been claimed (by any process), otherwise
+     *         {@code false}.
+     */
+    public boolean isClaimed(int n) {
+        checkBounds(n);
+        int bit = n - lowerBound;
+        long word = (long) WORDS.getVolatile(map, offset(bit));
+        return (word & (1L << bit)) != 0;
+    }
+
+    /**
+     * Claims a given ID.
+     * 
+     * @param n The numerical ID to claim.
+     * @return {@code true} if the ID has been claimed by this call, {@code false}
+     *         if it had already been claimed.
+     */
+    public boolean claim(int n) {
+        checkBounds(n);
+        int bit = n - lowerBound;
+        int offset = offset(bit);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = (long) WORDS.getVolatile(map, offset);
+            if ( (word & mask) != 0 ) {
+                return false;
+            }
+        } while ( !WORDS.compareAndSet(map, offset, word, word | mask) );
+        return true;
+    }
+
+    /**
+     * Claims the lowest unclaimed ID, starting from the given ID.
+     * 
+     * @param from The lowest ID to consider.
+     * @return The claimed ID, or -1 if all IDs from {@code from} to the end of the
+     *         range have already been claimed.
+     */
+    public int claimNext(int from) {
+        if ( from < lowerBound ) {
+            from = lowerBound;
+        }
+        if ( from >= upperBound ) {
+            return -1;
+        }
+
+        int size = upperBound - lowerBound;
+        int bit = from - lowerBound;
+        while ( bit < size ) {
+            int offset = offset(bit);
+            long word = (long) WORDS.getVolatile(map, offset);
+            // Ignore the bits below the starting point within the first word.
+            long free = ~word & (-1L << bit);
+            if ( free == 0 ) {
+                bit = (bit | 63) + 1;
+                continue;
+            }
+            int candidate = (bit & ~63) + Long.numberOfTrailingZeros(free);
+            if ( candidate >= size ) {
+                return -1;
+            }
+            if ( WORDS.compareAndSet(map, offset, word, word | Long.lowestOneBit(free)) ) {
+                return lowerBound + candidate;
+            }
+            // Another claimer modified the word; look at it again.
+        }
+        return -1;
+    }
+
+    /**
+     * Forces all claims made so far to stable storage.
+     */
+    public void sync() {
+        map.force();
+    }
+
+    /**
+     * Forces all claims to stable storage and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    private void checkBounds(int n) {
+        if ( n < lowerBound || n >= upperBound ) {
+            throw new IllegalArgumentException("ID out of range");
+        }
+    }
+
+    private static int offset(int bit) {
+        return HEADER_SIZE + (bit >>> 6) * 8;
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+
+/**
+ * A precompiled ID format, to convert numerical IDs to their textual form and
+ * back.
+ * <p>
+ * An ID is made of a fixed prefix, followed by the numerical portion of the ID
+ * padded to a fixed width, optionally followed by a fixed suffix. Contrary to
+ * C-style format strings, the format is only parsed once, when the object is
+ * created; formatting and parsing are then done directly on characters, without
+ * any intermediate object.
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ */
+public class IDFormat {
+
+    private static final int MAX_DIGITS = 10;
+
+    private final String prefix;
+    private final String curiePrefix;
+    private final String suffix;
+    private final int width;
+    private final char padding;
+
+    /**
+     * Creates a new format for IDs made of a prefix and a zero-padded number.
+     * 
+     * @param prefix The prefix for all IDs.
+     * @param width  The number of digits in the numerical portion of the IDs.
+     */
+    public IDFormat(String prefix, int width) {
+        this(prefix, null, width);
+    }
+
+    /**
+     * Creates a new format for IDs made of a prefix and a zero-padded number, that
+     * may also be written in a short form (“CURIE”).
+     * 
+     * @param prefix     The prefix for all IDs.
+     * @param prefixName The prefix name to use for short-form IDs. May be
+     *                   {@code null}, in which case only full-length IDs will be
+     *                   recognised.
+     * @param width      The number of digits in the numerical portion of the IDs.
+     */
+    public IDFormat(String prefix, String prefixName, int width) {
+        this(prefix, prefixName, width, '0', "");
+    }
+
+    /**
+     * Creates a new format for IDs conforming to the given policy.
+     * 
+     * @param policy The ID policy whose IDs should be formatted.
+     */
+    public IDFormat(IDPolicy policy) {
+        this(policy.getPrefix(), policy.getPrefixName(), policy.getWidth());
+    }
+
+    private IDFormat(String prefix, String prefixName, int width, char padding, String suffix) {
+        if ( prefix == null ) {
+            throw new IllegalArgumentException("Missing ID prefix");
+        }
+        if ( width < 0 || width > MAX_DIGITS ) {
+            throw new IllegalArgumentException("Width value out of bounds");
+        }
+        this.prefix = prefix;
+        this.curiePrefix = prefixName != null ? prefixName + ":" : null;
+        this.width = width;
+        this.padding = padding;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Creates a new format from a C-style format string.
+     * <p>
+     * The format string must contain exactly one integer conversion specifier,
+     * which may be either {@code %d} (no padding), {@code %Nd} (padding with
+     * spaces to a width of N), or {@code %0Nd} (padding with zeros to a width of
+     * N). Literal percent signs must be escaped as {@code %%}. No other specifier
+     * is allowed.
+     * 
+     * @param format The format string to parse.
+     * @return The corresponding ID format.
+     * @throws IllegalArgumentException If the format string is not supported.
+     */
+    public static IDFormat fromFormatString(String format) {
+        StringBuilder prefix = new StringBuilder();
+        StringBuilder suffix = new StringBuilder();
+        StringBuilder current = prefix;
+        int width = 0;
+        char padding = ' ';
+        boolean found = false;
+
+        int len = format.length();
+        for ( int i = 0; i < len; i++ ) {
+            char c = format.charAt(i);
+            if ( c != '%' ) {
+                current.append(c);
+                continue;
+            }
+
+            if ( ++i == len ) {
+                throw new IllegalArgumentException("Truncated format specifier");
+            }
+            c = format.charAt(i);
+            if ( c == '%' ) {
+                current.append(c);
+                continue;
+            }
+
+            if ( found ) {
+                throw new IllegalArgumentException("Too many format specifiers");
+            }
+            if ( c == '0' ) {
+                padding = '0';
+                i += 1;
+            }
+            while ( i < len && (c = format.charAt(i)) >= '0' && c <= '9' ) {
+                width = width * 10 + (c - '0');
+                if ( width > MAX_DIGITS ) {
+                    throw new IllegalArgumentException("Width value out of bounds");
+                }
+                i += 1;
+            }
+            if ( i == len || format.charAt(i) != 'd' ) {
+                throw new IllegalArgumentException("Unsupported format specifier");
+            }
+            found = true;
+            current = suffix;
+        }
+
+        if ( !found ) {
+            throw new IllegalArgumentException("Missing format specifier");
+        }
+        return new IDFormat(prefix.toString(), null, width, padding, suffix.toString());
+    }
+
+    /*
+     * Same as fromFormatString, but returns null instead of throwing if the
+     * format string is not supported.
+     */
+    static IDFormat tryFromFormatString(String format) {
+        try {
+            return fromFormatString(format);
+        } catch ( IllegalArgumentException e ) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the prefix of all IDs in this format.
+     * 
+     * @return The ID prefix.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Gets the prefix of all short-form IDs in this format.
+     * 
+     * @return The short-form prefix (including the colon), or {@code null} if this
+     *         format does not have a short form.
+     */
+    public String getShortPrefix() {
+        return curiePrefix;
+    }
+
+    /**
+     * Gets the minimal number of digits in the numerical portion of the IDs.
+     * 
+     * @return The width of the numerical portion.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets a C-style format string equivalent to this format.
+     * 
+     * @return A format string suitable for use with {@link String#format}.
+     */
+    public String getFormatString() {
+        StringBuilder sb = new StringBuilder();
+        appendEscaped(sb, prefix);
+        sb.append('%');
+        if ( width > 0 ) {
+            if ( padding == '0' ) {
+                sb.append('0');
+            }
+            sb.append(width);
+        }
+        sb.append('d');
+        appendEscaped(sb, suffix);
+        return sb.toString();
+    }
+
+    /**
+     * Gets the length of the ID for the given number.
+     * 
+     * @param n The numerical portion of the ID.
+     * @return The number of characters in the formatted ID.
+     */
+    public int getLength(int n) {
+        return prefix.length() + Math.max(width, countDigits(n)) + suffix.length();
+    }
+
+    /**
+     * Gets the length of the longest possible ID in this format. This is the size
+     * of a buffer that is guaranteed to be large enough for any call to
+     * {@link #format(int, char[], int)}.
+     * 
+     * @return The maximal number of characters in a formatted ID.
+     */
+    public int getMaxLength() {
+        return prefix.length() + Math.max(width, MAX_DIGITS) + suffix.length();
+    }
+
+    /**
+     * Formats a numerical ID.
+     * 
+     * @param n The numerical portion of the ID.
+     * @return The formatted ID.
+     */
+    public String format(int n) {
+        char[] buffer = new char[getLength(n)];
+        format(n, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * Formats a numerical ID into a character buffer.
+     * 
+     * @param n      The numerical portion of the ID.
+     * @param buffer The buffer to write the ID into. It must have room for at least
+     *               {@link #getLength(int)} characters after {@code offset}.
+     * @param offset The position in the buffer where to write the ID.
+     * @return The position in the buffer immediately after the written ID.
+     */
+    public int format(int n, char[] buffer, int offset) {
+        checkNumber(n);
+        int pos = offset;
+
+        prefix.getChars(0, prefix.length(), buffer, pos);
+        pos += prefix.length();
+
+        int digits = countDigits(n);
+        for ( int i = digits; i < width; i++ ) {
+            buffer[pos++] = padding;
+        }
+        pos += digits;
+        for ( int i = pos - 1; i >= pos - digits; i-- ) {
+            buffer[i] = (char) ('0' + n % 10);
+            n /= 10;
+        }
+
+        suffix.getChars(0, suffix.length(), buffer, pos);
+        return pos + suffix.length();
+    }
+
+    /**
+     * Formats a numerical ID into a string builder.
+     * 
+     * @param n  The numerical portion of the ID.
+     * @param sb The string builder to append the ID to.
+     */
+    public void formatTo(int n, StringBuilder sb) {
+        checkNumber(n);
+        sb.append(prefix);
+        for ( int i = countDigits(n); i < width; i++ ) {
+            sb.append(padding);
+        }
+        sb.append(n);
+        sb.append(suffix);
+    }
+
+    /**
+     * Formats a numerical ID into any character sink.
+     * 
+     * @param n   The numerical portion of the ID.
+     * @param out The object to append the ID to.
+     * @throws IOException If any I/O error occurs when appending to the sink.
+     */
+    public void formatTo(int n, Appendable out) throws IOException {
+        checkNumber(n);
+        out.append(prefix);
+        int digits = countDigits(n);
+        for ( int i = digits; i < width; i++ ) {
+            out.append(padding);
+        }
+        for ( int div = pow10(digits - 1); div > 0; div /= 10 ) {
+            out.append((char) ('0' + (n / div) % 10));
+        }
+        out.append(suffix);
+    }
+
+    /**
+     * Extracts the numerical portion of an ID.
+     * <p>
+     * The ID may be either in full form (starting with {@link #getPrefix()}) or, if
+     * this format has one, in short form (starting with
+     * {@link #getShortPrefix()}).
+     * 
+     * @param id The ID to parse.
+     * @return The numerical portion of the ID, or -1 if the ID does not conform to
+     *         this format.
+     */
+    public int parse(CharSequence id) {
+        return parse(id, 0, id.length());
+    }
+
+    /**
+     * Extracts the numerical portion of an ID within a larger sequence of
+     * characters.
+     * 
+     * @param seq   The sequence of characters containing the ID.
+     * @param start The position of the first character of the ID.
+     * @param end   The position immediately after the last character of the ID.
+     * @return The numerical portion of the ID, or -1 if the ID does not conform to
+     *         this format.
+     */
+    public int parse(CharSequence seq, int start, int end) {
+        int n = parseAfter(seq, start, end, prefix);
+        if ( n == -1 && curiePrefix != null ) {
+            n = parseAfter(seq, start, end, curiePrefix);
+        }
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        return getFormatString();
+    }
+
+    /*
+     * Checks whether this format produces the same IDs as another one for all
+     * numbers (short-form prefixes are not considered).
+     */
+    boolean isSameAs(IDFormat other) {
+        return other == this || (other != null && getFormatString().equals(other.getFormatString()));
+    }
+
+    /*
+     * Parses the numerical portion of an ID, assuming it starts with the given
+     * prefix.
+     */
+    private int parseAfter(CharSequence seq, int start, int end, String expectedPrefix) {
+        int pfxLen = expectedPrefix.length();
+        int sfxLen = suffix.length();
+        if ( end - start < pfxLen + sfxLen + Math.max(width, 1) ) {
+            return -1;
+        }
+        if ( !regionMatches(seq, start, expectedPrefix) || !regionMatches(seq, end - sfxLen, suffix) ) {
+            return -1;
+        }
+
+        int pos = start + pfxLen;
+        int last = end - sfxLen;
+        int count = last - pos;
+
+        // Skip the padding characters; if the number is wider than the required
+        // width, there should not be any padding at all.
+        if ( count <= width ) {
+            if ( count < width ) {
+                return -1;
+            }
+            while ( pos < last - 1 && seq.charAt(pos) == padding ) {
+                pos += 1;
+            }
+        } else if ( (count > 1 && seq.charAt(pos) == '0') || count > MAX_DIGITS ) {
+            return -1;
+        }
+
+        long n = 0;
+        while ( pos < last ) {
+            char c = seq.charAt(pos++);
+            if ( c < '0' || c > '9' ) {
+                return -1;
+            }
+            n = n * 10 + (c - '0');
+        }
+        return n > Integer.MAX_VALUE ? -1 : (int) n;
+    }
+
+    private static boolean regionMatches(CharSequence seq, int offset, String expected) {
+        int len = expected.length();
+        for ( int i = 0; i < len; i++ ) {
+            if ( seq.charAt(offset + i) != expected.charAt(i) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendEscaped(StringBuilder sb, String s) {
+        int len = s.length();
+        for ( int i = 0; i < len; i++ ) {
+            char c = s.charAt(i);
+            if ( c == '%' ) {
+                sb.append('%');
+            }
+            sb.append(c);
+        }
+    }
+
+    private static void checkNumber(int n) {
+        if ( n < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID");
+        }
+    }
+
+    private static int countDigits(int n) {
+        int digits = 1;
+        while ( n >= 10 ) {
+            n /= 10;
+            digits += 1;
+        }
+        return digits;
+    }
+
+    private static int pow10(int exp) {
+        int n = 1;
+        for ( int i = 0; i < exp; i++ ) {
+            n *= 10;
+        }
+        return n;
+    }
+}
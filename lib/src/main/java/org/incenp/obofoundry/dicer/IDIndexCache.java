@@ -0,0 +1,296 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An on-disk cache of the IDs used in ontology files.
+ * <p>
+ * For each combination of source file and ID format, the cache stores the set
+ * of used IDs found by an {@link IDScanner}, along with the size, modification
+ * time, and SHA-256 digest of the file at the time it was scanned. When the
+ * index for a file is requested again, it is loaded straight from the cache if
+ * the file has not changed; the file is only scanned again if its contents are
+ * different. A file that has been touched without being modified (same size
+ * and digest, different modification time) is not scanned again either. Entries
+ * written by a version of the scanner that may find different IDs are ignored
+ * and rebuilt.
+ * <p>
+ * Cache entries are written atomically, so a cache directory can safely be
+ * shared between concurrent processes.
+ */
+public class IDIndexCache {
+
+    private static final byte[] MAGIC = "DICRIDX2".getBytes(StandardCharsets.US_ASCII);
+    private static final int DIGEST_SIZE = 32;
+    private static final int HEADER_SIZE = MAGIC.length + 4 + 8 + 8 + DIGEST_SIZE;
+
+    private Path directory;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param directory The directory where cache entries are stored. It will be
+     *                  created when needed.
+     */
+    public IDIndexCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the default cache directory. This is a {@code dicer} directory within
+     * {@code $XDG_CACHE_HOME} if that variable is set, or within
+     * {@code ~/.cache} otherwise.
+     * 
+     * @return The default cache directory.
+     */
+    public static Path getDefaultDirectory() {
+        String base = System.getenv("XDG_CACHE_HOME");
+        if ( base == null || base.isEmpty() ) {
+            return Paths.get(System.getProperty("user.home"), ".cache", "dicer");
+        }
+        return Paths.get(base, "dicer");
+    }
+
+    /**
+     * Gets the directory where this cache stores its entries.
+     * 
+     * @return The cache directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the index of the IDs used in a file, from the cache if possible.
+     * 
+     * @param file   The file whose IDs are requested.
+     * @param format The format of the IDs to look for.
+     * @return The index of the IDs used in the file.
+     * @throws IOException If any I/O error occurs when reading the file or when
+     *                     reading or writing the cache entry.
+     */
+    public UsedIDIndex getIndex(Path file, IDFormat format) throws IOException {
+        Path entryFile = getEntryPath(file, format);
+        long size = Files.size(file);
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+
+        Entry entry = readEntry(entryFile);
+        if ( entry != null && entry.size == size ) {
+            if ( entry.mtime == mtime ) {
+                return new UsedIDIndex(format, entry.bitmap);
+            }
+
+            byte[] digest = computeDigest(file);
+            if ( Arrays.equals(digest, entry.digest) ) {
+                writeEntry(entryFile, size, mtime, digest, entry.bitmap);
+                return new UsedIDIndex(format, entry.bitmap);
+            }
+        }
+
+        return refresh(file, format);
+    }
+
+    /**
+     * Gets the merged index of the IDs used in several files. Each file is looked
+     * up in the cache (and scanned if needed) on its own fork-join task.
+     * 
+     * @param files  The files whose IDs are requested.
+     * @param format The format of the IDs to look for.
+     * @return A new index containing all the IDs used in any of the files.
+     * @throws IOException If any I/O error occurs when reading the files or the
+     *                     cache entries.
+     */
+    public UsedIDIndex getIndex(Collection<Path> files, IDFormat format) throws IOException {
+        return UsedIDIndex.fromFiles(format, files, (file) -> getIndex(file, format));
+    }
+
+    /**
+     * Checks whether the cache contains an index for a file, that is up to date
+     * with respect to the file's size and modification time.
+     * 
+     * @param file   The file to check.
+     * @param format The format of the IDs to look for.
+     * @return {@code true} if the cached index can be used without checking the
+     *         contents of the file, otherwise {@code false}.
+     * @throws IOException If any I/O error occurs when accessing the file.
+     */
+    public boolean isUpToDate(Path file, IDFormat format) throws IOException {
+        Entry entry = readEntry(getEntryPath(file, format));
+        return entry != null && entry.size == Files.size(file)
+                && entry.mtime == Files.getLastModifiedTime(file).toMillis();
+    }
+
+    /**
+     * Scans a file and stores its index into the cache, regardless of whether
+     * the cache already contains an up-to-date index for that file.
+     * 
+     * @param file   The file to scan.
+     * @param format The format of the IDs to look for.
+     * @return The index of the IDs used in the file.
+     * @throws IOException If any I/O error occurs when reading the file or when
+     *                     writing the cache entry.
+     */
+    public UsedIDIndex refresh(Path file, IDFormat format) throws IOException {
+        long size = Files.size(file);
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+        UsedIDIndex index = new UsedIDIndex(format);
+
+        // Compute the digest on the fly, so that the file is only read once.
+        MessageDigest md = getDigest();
+        try ( InputStream input = new DigestInputStream(Files.newInputStream(file), md) ) {
+            new IDScanner(format).scan(input, index::add);
+        }
+
+        writeEntry(getEntryPath(file, format), size, mtime, md.digest(), index.getBitmap());
+        return index;
+    }
+
+    /*
+     * The name of the entry depends on the location of the file and on the ID
+     * format, since the same file may be scanned for several different prefixes.
+     */
+    private Path getEntryPath(Path file, IDFormat format) {
+        MessageDigest md = getDigest();
+        md.update(file.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(format.getFormatString().getBytes(StandardCharsets.UTF_8));
+        if ( format.getShortPrefix() != null ) {
+            md.update((byte) 0);
+            md.update(format.getShortPrefix().getBytes(StandardCharsets.UTF_8));
+        }
+        return directory.resolve(toHex(md.digest(), 16) + ".idx");
+    }
+
+    /*
+     * Reads a cache entry. Returns null if the entry does not exist or is not
+     * valid, so that it is simply rebuilt.
+     */
+    private Entry readEntry(Path entryFile) throws IOException {
+        try ( FileChannel channel = FileChannel.open(entryFile, StandardOpenOption.READ) ) {
+            if ( channel.size() < HEADER_SIZE ) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if ( !Arrays.equals(magic, MAGIC) || buffer.getInt() != IDScanner.VERSION ) {
+                return null;
+            }
+
+            Entry entry = new Entry();
+            entry.size = buffer.getLong();
+            entry.mtime = buffer.getLong();
+            entry.digest = new byte[DIGEST_SIZE];
+            buffer.get(entry.digest);
+            entry.bitmap = IDBitmap.deserialize(buffer);
+            return entry;
+        } catch ( NoSuchFileException e ) {
+            return null;
+        } catch ( IllegalArgumentException e ) {
+            return null;
+        }
+    }
+
+    private void writeEntry(Path entryFile, long size, long mtime, byte[] digest, IDBitmap bitmap)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bitmap.getSerializedSize());
+        buffer.put(MAGIC);
+        buffer.putInt(IDScanner.VERSION);
+        buffer.putLong(size);
+        buffer.putLong(mtime);
+        buffer.put(digest);
+        bitmap.serialize(buffer);
+        buffer.flip();
+
+        Files.createDirectories(directory);
+        Path tmpFile = Files.createTempFile(directory, "entry", ".tmp");
+        try {
+            try ( FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.WRITE) ) {
+                while ( buffer.hasRemaining() ) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tmpFile, entryFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch ( AtomicMoveNotSupportedException e ) {
+                Files.move(tmpFile, entryFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private static byte[] computeDigest(Path file) throws IOException {
+        MessageDigest md = getDigest();
+        byte[] buffer = new byte[65536];
+        try ( InputStream input = Files.newInputStream(file) ) {
+            int n;
+            while ( (n = input.read(buffer)) != -1 ) {
+                md.update(buffer, 0, n);
+            }
+        }
+        return md.digest();
+    }
+
+    private static MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch ( NoSuchAlgorithmException e ) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes, int count) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < count; i++ ) {
+            sb.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static class Entry {
+        long size;
+        long mtime;
+        byte[] digest;
+        IDBitmap bitmap;
+    }
+}
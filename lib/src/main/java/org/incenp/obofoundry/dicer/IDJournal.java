@@ -0,0 +1,214 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A persistent record of the last ID issued in each range.
+ * <p>
+ * The journal is a small text file, typically stored next to the ID policy
+ * file, that records for each range (identified by the ID format and the lower
+ * bound of the range) the highest numerical ID that has been issued so far.
+ * Generators can then resume from that point, instead of checking again all the
+ * IDs that have already been used in the range.
+ * <p>
+ * The journal is always written atomically: the new contents are written to a
+ * temporary file, flushed to disk, and then moved over the previous journal, so
+ * that an interrupted write never leaves a corrupted journal behind.
+ */
+public class IDJournal {
+
+    private static final String HEADER = "# Dicer ID journal -- do not edit";
+
+    private Path file;
+    private Map<String, Integer> entries = new TreeMap<>();
+
+    /**
+     * Creates a new, empty journal.
+     * 
+     * @param file The file the journal should be written to.
+     */
+    public IDJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads a journal from a file. If the file does not exist, an empty journal
+     * is returned.
+     * 
+     * @param file The file to load the journal from.
+     * @return The journal.
+     * @throws IOException If the file exists but cannot be read or is not a valid
+     *                     journal.
+     */
+    public static IDJournal load(Path file) throws IOException {
+        IDJournal journal = new IDJournal(file);
+        if ( Files.exists(file) ) {
+            try ( BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8) ) {
+                String line;
+                while ( (line = reader.readLine()) != null ) {
+                    if ( line.isEmpty() || line.charAt(0) == '#' ) {
+                        continue;
+                    }
+                    int tab = line.lastIndexOf('\t');
+                    if ( tab == -1 ) {
+                        throw new IOException("Invalid journal entry: " + line);
+                    }
+                    try {
+                        journal.entries.put(line.substring(0, tab), Integer.parseInt(line.substring(tab + 1)));
+                    } catch ( NumberFormatException e ) {
+                        throw new IOException("Invalid journal entry: " + line);
+                    }
+                }
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Gets the default location of the journal associated with a policy file.
+     * This is a file in the same directory as the policy, with the same name but
+     * the {@code .journal} extension instead of {@code .owl}.
+     * 
+     * @param policyFile The policy file.
+     * @return The location of the journal file.
+     */
+    public static Path getDefaultPath(Path policyFile) {
+        String name = policyFile.getFileName().toString();
+        if ( name.endsWith(".owl") ) {
+            name = name.substring(0, name.length() - 4);
+        }
+        return policyFile.resolveSibling(name + ".journal");
+    }
+
+    /**
+     * Gets the file this journal is written to.
+     * 
+     * @return The journal file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the last ID issued within a range.
+     * 
+     * @param format     The format of the IDs in the range.
+     * @param lowerBound The lower bound of the range.
+     * @return The last issued numerical ID, or -1 if the journal does not contain
+     *         any entry for that range.
+     */
+    public int getLastIssued(IDFormat format, int lowerBound) {
+        return entries.getOrDefault(getKey(format, lowerBound), -1);
+    }
+
+    /**
+     * Gets the last ID issued within a range.
+     * 
+     * @param range The range to query.
+     * @return The last issued numerical ID, or -1 if the journal does not contain
+     *         any entry for that range.
+     */
+    public int getLastIssued(IDRange range) {
+        return getLastIssued(range.getIDFormat(), range.getLowerBound());
+    }
+
+    /**
+     * Records that an ID has been issued within a range. This only updates the
+     * journal in memory; use {@link #save()} to write it to disk.
+     * 
+     * @param format     The format of the IDs in the range.
+     * @param lowerBound The lower bound of the range.
+     * @param n          The numerical ID that has been issued. If it is lower than
+     *                   the last issued ID already recorded, the journal is not
+     *                   modified.
+     */
+    public void record(IDFormat format, int lowerBound, int n) {
+        entries.merge(getKey(format, lowerBound), n, Math::max);
+    }
+
+    /*
+     * Sets the last issued ID within a range unconditionally, or removes the
+     * entry for that range if n is negative. Used to roll back a record.
+     */
+    void reset(IDFormat format, int lowerBound, int n) {
+        if ( n < 0 ) {
+            entries.remove(getKey(format, lowerBound));
+        } else {
+            entries.put(getKey(format, lowerBound), n);
+        }
+    }
+
+    /**
+     * Writes the journal to disk.
+     * 
+     * @throws IOException If any I/O error occurs when writing the journal.
+     */
+    public void save() throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try ( FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE) ) {
+                Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1);
+                writer.write(HEADER);
+                writer.write('\n');
+                for ( Map.Entry<String, Integer> entry : entries.entrySet() ) {
+                    writer.write(entry.getKey());
+                    writer.write('\t');
+                    writer.write(entry.getValue().toString());
+                    writer.write('\n');
+                }
+                writer.flush();
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch ( AtomicMoveNotSupportedException e ) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        // Make sure the rename itself is durable. Not all platforms allow to open
+        // a directory, in which case there is nothing more we can do.
+        try ( FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ) ) {
+            channel.force(true);
+        } catch ( IOException e ) {
+        }
+    }
+
+    private static String getKey(IDFormat format, int lowerBound) {
+        return format.getFormatString() + '\t' + lowerBound;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A persistent, append-only record of all the IDs that have ever been issued.
+ * <p>
+ * Contrary to an ontology, which only contains the IDs of the terms that have
+ * been released, the ledger records every ID handed out by a generator, so
+ * that an ID is never issued twice even if the term it was minted for has been
+ * abandoned. IDs are recorded by their numerical portion, along with the ID of
+ * the range they belong to.
+ * <p>
+ * The ledger is stored as a binary file of fixed-size records. New records are
+ * accumulated in memory and written to disk in groups, with a single
+ * synchronisation to stable storage for the entire group, when
+ * {@link #commit()} is called or when enough records are pending. A record
+ * that was only partially written (because of a crash) is discarded when the
+ * ledger is opened again. Committing after each record defeats the grouping,
+ * so callers that issue several IDs at once should append all of them before
+ * committing (as {@link LedgerIDGenerator#nextIDs(int)} does).
+ * <p>
+ * The contents of the ledger are indexed in memory, so that checking whether
+ * an ID has been issued is done in constant time. All methods are thread-safe.
+ */
+public class IDLedger implements Closeable {
+
+    private static final long MAGIC = 0x444943524c444731L; // "DICRLDG1"
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 8;
+    private static final int MAX_PENDING = 1024;
+
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(MAX_PENDING * RECORD_SIZE);
+    private Map<Integer, IDBitmap> index = new HashMap<>();
+    private boolean unsynced = false;
+
+    private IDLedger(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a ledger, creating it if needed.
+     * 
+     * @param file The file containing the ledger.
+     * @return The opened ledger.
+     * @throws IOException If any I/O error occurs when reading the ledger, or if
+     *                     the file exists but is not a ledger.
+     */
+    public static IDLedger open(Path file) throws IOException {
+        return open(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+    }
+
+    /*
+     * Opens a ledger from an already opened channel.
+     */
+    static IDLedger open(FileChannel channel) throws IOException {
+        IDLedger ledger = new IDLedger(channel);
+        try {
+            ledger.load();
+        } catch ( IOException e ) {
+            channel.close();
+            throw e;
+        }
+        return ledger;
+    }
+
+    /**
+     * Records that an ID has been issued. The record is only guaranteed to be on
+     * disk once {@link #commit()} has been called.
+     * 
+     * @param rangeID The ID of the range the issued ID belongs to.
+     * @param n       The numerical portion of the issued ID.
+     * @throws IOException If any I/O error occurs when writing pending records to
+     *                     disk.
+     */
+    public synchronized void append(int rangeID, int n) throws IOException {
+        if ( !pending.hasRemaining() ) {
+            commit();
+        }
+        pending.putInt(rangeID);
+        pending.putInt(n);
+        index.computeIfAbsent(rangeID, (k) -> new IDBitmap()).add(n);
+    }
+
+    /**
+     * Writes all pending records to disk, and waits for them to reach stable
+     * storage.
+     * <p>
+     * If this method fails, the records that could not be written are kept
+     * pending, so that calling it again writes and synchronises them.
+     * 
+     * @throws IOException If any I/O error occurs.
+     */
+    public synchronized void commit() throws IOException {
+        if ( pending.position() == 0 && !unsynced ) {
+            return;
+        }
+        unsynced = true;
+        pending.flip();
+        try {
+            while ( pending.hasRemaining() ) {
+                channel.write(pending);
+            }
+        } finally {
+            // Keep whatever has not been written (nothing, if all went well).
+            pending.compact();
+        }
+        channel.force(false);
+        unsynced = false;
+    }
+
+    /**
+     * Checks whether an ID has ever been issued.
+     * 
+     * @param rangeID The ID of the range the ID belongs to.
+     * @param n       The numerical portion of the ID.
+     * @return {@code true} if the ID has been issued, otherwise {@code false}.
+     */
+    public synchronized boolean wasIssued(int rangeID, int n) {
+        IDBitmap issued = index.get(rangeID);
+        return issued != null && issued.contains(n);
+    }
+
+    /**
+     * Gets the number of IDs that have been issued within a range.
+     * 
+     * @param rangeID The ID of the range.
+     * @return The number of issued IDs.
+     */
+    public synchronized int countIssued(int rangeID) {
+        IDBitmap issued = index.get(rangeID);
+        return issued != null ? issued.cardinality() : 0;
+    }
+
+    /**
+     * Gets an existence checker that considers as existing all the IDs that have
+     * been issued within a range. The checker also implements
+     * {@link IIntExistenceChecker}.
+     * 
+     * @param rangeID The ID of the range.
+     * @param format  The format of the IDs in the range.
+     * @return The existence checker.
+     */
+    public IExistenceChecker getChecker(int rangeID, IDFormat format) {
+        return IIntExistenceChecker.toChecker((n) -> wasIssued(rangeID, n), format);
+    }
+
+    /**
+     * Gets an existence checker that considers as existing all the IDs that have
+     * been issued within a range.
+     * 
+     * @param range The range.
+     * @return The existence checker.
+     */
+    public IExistenceChecker getChecker(IDRange range) {
+        return getChecker(range.getID(), range.getIDFormat());
+    }
+
+    /**
+     * Commits all pending records and closes the ledger.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if ( size == 0 ) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC);
+            header.flip();
+            while ( header.hasRemaining() ) {
+                channel.write(header);
+            }
+            channel.force(true);
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        buffer.limit(HEADER_SIZE);
+        readFully(buffer, 0);
+        if ( buffer.position() < HEADER_SIZE || buffer.getLong(0) != MAGIC ) {
+            throw new IOException("Not a Dicer ID ledger");
+        }
+
+        // Ignore a trailing partial record, left over by an interrupted write.
+        long end = HEADER_SIZE + (size - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+        long position = HEADER_SIZE;
+        while ( position < end ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            readFully(buffer, position);
+            position += buffer.position();
+            buffer.flip();
+            while ( buffer.remaining() >= RECORD_SIZE ) {
+                int rangeID = buffer.getInt();
+                int n = buffer.getInt();
+                index.computeIfAbsent(rangeID, (k) -> new IDBitmap()).add(n);
+            }
+        }
+
+        if ( end < size ) {
+            channel.truncate(end);
+        }
+        channel.position(end);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while ( buffer.hasRemaining() ) {
+            if ( channel.read(buffer, position + buffer.position()) == -1 ) {
+                break;
+            }
+        }
+    }
+}
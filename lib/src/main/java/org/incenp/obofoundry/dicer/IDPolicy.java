@@ -36,6 +36,8 @@ public class IDPolicy {
     private int width;
     private int lastId;
     private int maxBound;
+    private IDFormat idFormat;
+    private String format;
     private Map<String, IDRange> rangesByName;
     private Map<Integer, IDRange> rangesByID;
 
@@ -82,6 +84,8 @@ public class IDPolicy {
         rangesByName = new HashMap<>();
         rangesByID = new HashMap<>();
         lastId = 0;
+        idFormat = new IDFormat(this);
+        format = idFormat.getFormatString();
 
         maxBound = 1;
         for ( int i = 0; i < width; i++ ) {
@@ -133,7 +137,17 @@ public class IDPolicy {
      * @return The policy’s format string.
      */
     public String getFormat() {
-        return prefix + String.format("%%0%dd", width);
+        return format;
+    }
+
+    /**
+     * Gets a precompiled format object suitable to mint IDs conforming to this
+     * policy, and to parse such IDs.
+     * 
+     * @return The policy’s ID format.
+     */
+    public IDFormat getIDFormat() {
+        return idFormat;
     }
 
     /**
@@ -214,13 +228,32 @@ public class IDPolicy {
         return rangesByName.get(name);
     }
 
+    /**
+     * Gets all the ranges allocated to a given user.
+     * 
+     * @param name The name of the user for which to retrieve the ranges.
+     * @return A list of all the ranges allocated to the user, sorted by their IDs
+     *         (that is, in the order in which they were allocated); the list is
+     *         empty if the policy does not contain any range for that user.
+     */
+    public List<IDRange> getRanges(String name) {
+        ArrayList<IDRange> list = new ArrayList<IDRange>();
+        for ( IDRange range : getRangesByID() ) {
+            if ( range.getName().equals(name) ) {
+                list.add(range);
+            }
+        }
+        return list;
+    }
+
     /**
      * Finds the range allocated to a given user.
      * <p>
      * Note that this method, as all similar methods ({@link #findAnyRange(List)},
      * {@link #getRange(String)}, and {@link #getAnyRange(List)}) will return the
      * <em>last registered range</em> for the requested name, in the event that
-     * several ranges were registered for the same name.
+     * several ranges were registered for the same name. Use
+     * {@link #getRanges(String)} to get all the ranges registered for a name.
      * 
      * @param name The name of the user for which to retrieve the range.
      * @return Optional of the requested range, or Optional.empty if the policy does
@@ -327,6 +360,45 @@ public class IDPolicy {
         }
     }
 
+    /**
+     * Gets the range with the given ID.
+     * 
+     * @param id The ID of the range to retrieve.
+     * @return Optional of the requested range, or Optional.empty if the policy does
+     *         not contain any range with that ID.
+     */
+    public Optional<IDRange> findRangeByID(int id) {
+        return Optional.ofNullable(rangesByID.get(id));
+    }
+
+    /**
+     * Extends a range into the unallocated space immediately after it.
+     * 
+     * @param range The range to extend. It must belong to this policy.
+     * @param size  The number of IDs to add to the range.
+     * @throws IDRangeNotFoundException If the space immediately after the range is
+     *                                  not free or not large enough.
+     */
+    public void extendRange(IDRange range, int size) throws IDRangeNotFoundException {
+        if ( size < 0 ) {
+            throw new IllegalArgumentException("Invalid negative range width");
+        }
+        if ( rangesByID.get(range.getID()) != range ) {
+            throw new IllegalArgumentException("Range does not belong to this policy");
+        }
+        long upper = (long) range.getUpperBound() + size;
+        boolean free = upper <= maxBound;
+        for ( IDRange r : rangesByID.values() ) {
+            if ( r != range && r.getLowerBound() >= range.getUpperBound() && r.getLowerBound() < upper ) {
+                free = false;
+            }
+        }
+        if ( !free ) {
+            throw new IDRangeNotFoundException("Not enough space to extend range %d by %d", range.getID(), size);
+        }
+        range.setUpperBound((int) upper);
+    }
+
     /**
      * Finds an available range with the given size in the policy.
      * 
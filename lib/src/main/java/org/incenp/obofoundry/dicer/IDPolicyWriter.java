@@ -24,6 +24,15 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 
@@ -60,6 +69,38 @@ public class IDPolicyWriter {
         writer.close();
     }
 
+    /**
+     * Writes a policy to a file, atomically replacing any previous version.
+     * <p>
+     * The policy is first written to a temporary file in the same directory, which
+     * is then moved over the target file once its contents have reached stable
+     * storage. Concurrent readers therefore see either the old or the new policy,
+     * and never a partially written file.
+     * 
+     * @param policy   The policy to write.
+     * @param filename The name of the file to write the policy to.
+     * @throws IOException If any I/O error occurs when attempting to write to the
+     *                     file.
+     */
+    public void writeAtomically(IDPolicy policy, String filename) throws IOException {
+        Path file = Paths.get(filename).toAbsolutePath();
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try ( FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE) ) {
+                write(policy, Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1));
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch ( AtomicMoveNotSupportedException e ) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
     /**
      * Writes a policy to a stream.
      * 
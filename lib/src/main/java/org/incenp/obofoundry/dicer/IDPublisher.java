@@ -0,0 +1,181 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A reactive publisher of newly generated IDs.
+ * <p>
+ * This class exposes any {@link IAutoIDGenerator} as a
+ * {@link java.util.concurrent.Flow.Publisher}. Each subscriber receives new IDs
+ * as it requests them; the generator (and therefore the existence checker) is
+ * only ever called on the publisher’s executor, never on the subscriber’s
+ * thread. When the generator runs out of IDs, the
+ * {@link IDNotFoundException} is signalled to the subscriber through
+ * {@link java.util.concurrent.Flow.Subscriber#onError(Throwable)}.
+ * <p>
+ * Several subscribers may subscribe to the same publisher; they then share the
+ * same generator and never receive the same ID. Calls to the generator are
+ * serialised, so the generator does not need to be thread-safe.
+ */
+public class IDPublisher implements Flow.Publisher<String> {
+
+    private static final int BATCH_SIZE = 128;
+
+    private IAutoIDGenerator generator;
+    private Executor executor;
+    private Object lock = new Object();
+
+    /**
+     * Creates a new instance that runs the generator on the common fork-join
+     * pool.
+     * 
+     * @param generator The generator to publish IDs from.
+     */
+    public IDPublisher(IAutoIDGenerator generator) {
+        this(generator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param generator The generator to publish IDs from.
+     * @param executor  The executor on which to run the generator and to signal
+     *                  subscribers.
+     */
+    public IDPublisher(IAutoIDGenerator generator, Executor executor) {
+        this.generator = generator;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        if ( subscriber == null ) {
+            throw new NullPointerException("Missing subscriber");
+        }
+        subscriber.onSubscribe(new IDSubscription(subscriber));
+    }
+
+    private String generate() throws IDNotFoundException {
+        synchronized ( lock ) {
+            return generator.nextID();
+        }
+    }
+
+    /*
+     * A subscription. All signals to the subscriber are emitted from the run()
+     * method, which is never executed by more than one thread at a time: the
+     * `pending` counter records how many times the subscription has been
+     * scheduled, and only the call that brings it from zero actually submits
+     * the task to the executor.
+     */
+    private class IDSubscription implements Flow.Subscription, Runnable {
+
+        private Flow.Subscriber<? super String> subscriber;
+        private AtomicLong requested = new AtomicLong();
+        private AtomicInteger pending = new AtomicInteger();
+        private volatile Throwable invalidRequest;
+        private volatile boolean cancelled;
+
+        IDSubscription(Flow.Subscriber<? super String> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if ( n <= 0 ) {
+                invalidRequest = new IllegalArgumentException("Invalid non-positive request");
+            } else {
+                requested.getAndUpdate((r) -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void schedule() {
+            if ( pending.getAndIncrement() == 0 ) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            try {
+                executor.execute(this);
+            } catch ( RejectedExecutionException e ) {
+                terminate(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if ( cancelled ) {
+                    return;
+                }
+                if ( invalidRequest != null ) {
+                    terminate(invalidRequest);
+                    return;
+                }
+
+                long r = requested.get();
+                long emitted = 0;
+                while ( emitted < r && emitted < BATCH_SIZE && !cancelled ) {
+                    String id;
+                    try {
+                        id = generate();
+                    } catch ( IDNotFoundException | RuntimeException e ) {
+                        terminate(e);
+                        return;
+                    }
+                    subscriber.onNext(id);
+                    emitted += 1;
+                }
+
+                if ( r != Long.MAX_VALUE ) {
+                    r = requested.addAndGet(-emitted);
+                }
+                if ( emitted == BATCH_SIZE && r > 0 ) {
+                    // Yield the executor thread to other tasks before emitting the
+                    // next batch.
+                    submit();
+                    return;
+                }
+                missed = pending.addAndGet(-missed);
+            } while ( missed != 0 );
+        }
+
+        private void terminate(Throwable t) {
+            if ( !cancelled ) {
+                cancelled = true;
+                subscriber.onError(t);
+            }
+        }
+    }
+}
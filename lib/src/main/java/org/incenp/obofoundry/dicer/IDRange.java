@@ -18,6 +18,9 @@
 
 package org.incenp.obofoundry.dicer;
 
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 /**
  * Represents an ID range in an ID policy.
  */
@@ -95,6 +98,17 @@ public class IDRange {
         return upperBound;
     }
 
+    /**
+     * Moves the upper bound of the range. This is intended for
+     * {@link IDPolicy#extendRange(IDRange, int)}, which is responsible for
+     * checking that the new bound does not overlap with another range.
+     * 
+     * @param upper The new upper bound (exclusive) of the range.
+     */
+    void setUpperBound(int upper) {
+        upperBound = upper;
+    }
+
     /**
      * Gets the number of IDs available in this range.
      * 
@@ -104,6 +118,15 @@ public class IDRange {
         return upperBound - lowerBound;
     }
 
+    /**
+     * Gets the policy this range belongs to.
+     * 
+     * @return The range’s policy.
+     */
+    public IDPolicy getPolicy() {
+        return policy;
+    }
+
     /**
      * Gets a format string suitable to mind IDs conforming to the policy this range
      * belongs to.
@@ -117,6 +140,50 @@ public class IDRange {
         return policy.getFormat();
     }
 
+    /**
+     * Gets a precompiled format object suitable to mint IDs conforming to the
+     * policy this range belongs to.
+     * 
+     * @return The policy’s ID format.
+     */
+    public IDFormat getIDFormat() {
+        return policy.getIDFormat();
+    }
+
+    /**
+     * Gets a stream of the numerical IDs of this range that are not already in
+     * use.
+     * <p>
+     * The stream is backed by a splittable view of the range’s interval, so it
+     * can be processed in parallel, in which case the existence checker will be
+     * called from several threads and must be thread-safe. When only some of the
+     * free IDs are needed from a parallel stream, make it unordered (e.g.
+     * {@code range.freeNumbers(checker).parallel().unordered().limit(n)}) if the
+     * IDs do not need to be the lowest ones, as enforcing the encounter order is
+     * costly.
+     * 
+     * @param checker An object to check whether a given ID already exists.
+     * @return The stream of free numerical IDs, in ascending order.
+     */
+    public IntStream freeNumbers(IExistenceChecker checker) {
+        IIntExistenceChecker intChecker = IIntExistenceChecker.fromChecker(checker, getIDFormat());
+        return IntStream.range(lowerBound, upperBound).filter((n) -> !intChecker.exists(n));
+    }
+
+    /**
+     * Gets a stream of the IDs of this range that are not already in use.
+     * <p>
+     * This is the same as {@link #freeNumbers(IExistenceChecker)}, with the
+     * numerical IDs formatted according to the policy this range belongs to.
+     * 
+     * @param checker An object to check whether a given ID already exists.
+     * @return The stream of free IDs, in ascending order.
+     */
+    public Stream<String> freeIDs(IExistenceChecker checker) {
+        IDFormat format = getIDFormat();
+        return freeNumbers(checker).mapToObj(format::format);
+    }
+
     @Override
     public String toString() {
         return String.format("id=%d, name=%s, bounds=[%d..%d)", id, name, lowerBound, upperBound);
@@ -0,0 +1,358 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * A lexical scanner to find the IDs used in an ontology file, without parsing
+ * the file into an OWLAPI model.
+ * <p>
+ * The scanner does not know anything about the syntax of the file. It simply
+ * looks for all occurrences of the local part of the ID prefix (for example,
+ * {@code UBERON_} in {@code http://purl.obolibrary.org/obo/UBERON_}) or of the
+ * corresponding short prefix ({@code UBERON:}), followed by a number. This is
+ * enough to find the IDs in all the usual ontology formats (RDF/XML, Turtle,
+ * OWL Functional Syntax, Manchester Syntax, OBO, OBO Graphs JSON), whether
+ * they are written as full IRIs, CURIEs, or OBO-style identifiers.
+ * <p>
+ * If the prefix has no local part (it ends with {@code /} or {@code #}, as in
+ * {@code https://example.org/}), the scanner instead looks for the full
+ * prefix.
+ * <p>
+ * In all cases, the scanner also looks for CURIEs using any prefix name that
+ * the file itself binds to the full ID prefix (for example,
+ * {@code @prefix dicer: <https://example.org/DICER_>}, so that
+ * {@code dicer:0001001} is found). Prefix declarations are recognised in the
+ * forms used by Turtle and SPARQL ({@code @prefix ex: <https://example.org/>}
+ * or {@code PREFIX ex: <https://example.org/>}), Manchester Syntax
+ * ({@code Prefix: ex: <https://example.org/>}), OWL Functional Syntax
+ * ({@code Prefix(ex:=<https://example.org/>)}), XML namespace declarations
+ * ({@code xmlns:ex="https://example.org/"}), and JSON-LD contexts
+ * ({@code "ex": "https://example.org/"}). They must appear before the CURIEs
+ * that use them, as all these syntaxes require.
+ * <p>
+ * The file is read in a single pass through a fixed-size buffer, so the memory
+ * used by the scanner does not depend on the size of the file. The results can
+ * be over-inclusive (for example, an ID mentioned in a comment will be found
+ * as well), which is harmless when the aim is to avoid minting IDs that are
+ * already in use.
+ */
+public class IDScanner {
+
+    private static final int DEFAULT_BUFFER_SIZE = 65536;
+    private static final int MAX_DIGITS = 10;
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final int LOOKBEHIND = 256;
+    private static final byte[] XMLNS = "xmlns".getBytes(StandardCharsets.US_ASCII);
+
+    /*
+     * Version of the scanning rules. It must be incremented whenever a change to
+     * the scanner may change the IDs it finds in a given file, so that results
+     * cached by IDIndexCache are rebuilt.
+     */
+    static final int VERSION = 2;
+
+    private IDFormat format;
+    private byte[][] tokens;
+    private byte[] declared;
+    private int lookahead;
+    private int bufferSize;
+
+    /**
+     * Creates a new scanner.
+     * 
+     * @param format The format of the IDs to look for.
+     */
+    public IDScanner(IDFormat format) {
+        this(format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /*
+     * Also used for testing, to exercise IDs straddling two buffers.
+     */
+    IDScanner(IDFormat format, int bufferSize) {
+        this.format = format;
+
+        List<String> tokenList = new ArrayList<>();
+        String prefix = format.getPrefix();
+        int sep = Math.max(prefix.lastIndexOf('/'), prefix.lastIndexOf('#'));
+        String local = sep != -1 && sep < prefix.length() - 1 ? prefix.substring(sep + 1) : prefix;
+        tokenList.add(local);
+        if ( format.getShortPrefix() != null ) {
+            tokenList.add(format.getShortPrefix());
+        }
+        if ( local.endsWith("_") ) {
+            String curie = local.substring(0, local.length() - 1) + ":";
+            if ( !tokenList.contains(curie) ) {
+                tokenList.add(curie);
+            }
+        }
+
+        tokens = new byte[tokenList.size()][];
+        int maxLength = 0;
+        for ( int i = 0; i < tokens.length; i++ ) {
+            tokens[i] = tokenList.get(i).getBytes(StandardCharsets.UTF_8);
+            maxLength = Math.max(maxLength, tokens[i].length);
+        }
+        if ( sep != -1 ) {
+            // Only an IRI prefix can be bound to a prefix name.
+            declared = prefix.getBytes(StandardCharsets.UTF_8);
+            maxLength = Math.max(maxLength, Math.max(declared.length, MAX_NAME_LENGTH) + 1);
+        }
+        lookahead = maxLength + MAX_DIGITS + 2;
+        this.bufferSize = Math.max(bufferSize, lookahead * 2 + LOOKBEHIND);
+    }
+
+    /**
+     * Scans a stream for IDs.
+     * 
+     * @param input    The stream to scan. It is read until the end, but not
+     *                 closed.
+     * @param consumer The object to pass the numerical portion of every found ID
+     *                 to. It may be called several times for the same ID.
+     * @throws IOException If any I/O error occurs when reading the stream.
+     */
+    public void scan(InputStream input, IntConsumer consumer) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        int len = 0;
+        int pos = 0;
+        boolean eof = false;
+        byte previous = ' ';
+        // Prefix names declared in the stream are only valid for that stream.
+        byte[][] tokens = this.tokens;
+
+        while ( true ) {
+            if ( !eof && len - pos < lookahead ) {
+                // Keep some of the already scanned bytes, to be able to look back
+                // for a prefix name.
+                int from = pos - Math.min(pos, LOOKBEHIND);
+                len -= from;
+                pos -= from;
+                System.arraycopy(buffer, from, buffer, 0, len);
+                while ( len < buffer.length && !eof ) {
+                    int n = input.read(buffer, len, buffer.length - len);
+                    if ( n == -1 ) {
+                        eof = true;
+                    } else {
+                        len += n;
+                    }
+                }
+            }
+            if ( pos >= len ) {
+                break;
+            }
+
+            byte b = buffer[pos];
+            if ( !isWordByte(previous) ) {
+                for ( byte[] token : tokens ) {
+                    if ( b == token[0] && regionMatches(buffer, pos, len, token) ) {
+                        int n = parseNumber(buffer, pos + token.length, len);
+                        if ( n != -1 ) {
+                            consumer.accept(n);
+                        }
+                    }
+                }
+                if ( declared != null && b == declared[0] && regionMatches(buffer, pos, len, declared) ) {
+                    byte[] name = findDeclaredName(buffer, pos, pos + declared.length, len);
+                    if ( name != null && !contains(tokens, name) ) {
+                        tokens = Arrays.copyOf(tokens, tokens.length + 1);
+                        tokens[tokens.length - 1] = name;
+                    }
+                }
+            }
+            previous = b;
+            pos += 1;
+        }
+    }
+
+    /**
+     * Scans a file for IDs.
+     * 
+     * @param file     The file to scan.
+     * @param consumer The object to pass the numerical portion of every found ID
+     *                 to. It may be called several times for the same ID.
+     * @throws IOException If any I/O error occurs when reading the file.
+     */
+    public void scan(Path file, IntConsumer consumer) throws IOException {
+        try ( InputStream input = Files.newInputStream(file) ) {
+            scan(input, consumer);
+        }
+    }
+
+    /**
+     * Creates an index of all the IDs found in a file.
+     * 
+     * @param file The file to scan.
+     * @return A new index containing all the IDs found in the file.
+     * @throws IOException If any I/O error occurs when reading the file.
+     */
+    public UsedIDIndex index(Path file) throws IOException {
+        UsedIDIndex index = new UsedIDIndex(format);
+        scan(file, index::add);
+        return index;
+    }
+
+    /**
+     * Creates an index of all the IDs found in several files. Each file is
+     * scanned on its own fork-join task.
+     * 
+     * @param files The files to scan.
+     * @return A new index containing all the IDs found in any of the files.
+     * @throws IOException If any I/O error occurs when reading the files.
+     */
+    public UsedIDIndex index(Collection<Path> files) throws IOException {
+        return UsedIDIndex.fromFiles(format, files, this::index);
+    }
+
+    /*
+     * Parses the digits starting at the given position, with the same
+     * constraints as IDFormat#parse.
+     */
+    private int parseNumber(byte[] buffer, int start, int len) {
+        int width = format.getWidth();
+        int pos = start;
+        long n = 0;
+        while ( pos < len && pos - start <= MAX_DIGITS && buffer[pos] >= '0' && buffer[pos] <= '9' ) {
+            n = n * 10 + (buffer[pos++] - '0');
+        }
+
+        int count = pos - start;
+        if ( count == 0 || count < width || count > MAX_DIGITS ) {
+            return -1;
+        }
+        if ( count > width && count > 1 && buffer[start] == '0' ) {
+            return -1;
+        }
+        if ( pos < len && isWordByte(buffer[pos]) ) {
+            return -1;
+        }
+        return n > Integer.MAX_VALUE ? -1 : (int) n;
+    }
+
+    /*
+     * Checks whether the prefix found between start and end is the IRI of a
+     * prefix declaration, and if so, returns the declared prefix name (with its
+     * trailing colon) as a token to look for.
+     */
+    private static byte[] findDeclaredName(byte[] buffer, int start, int end, int len) {
+        if ( start == 0 || end >= len ) {
+            return null;
+        }
+        byte open = buffer[start - 1];
+        byte close = buffer[end];
+        if ( !((open == '<' && close == '>') || (open == '"' && close == '"')) ) {
+            return null;
+        }
+
+        int i = start - 2;
+        while ( i >= 0 && (isSpaceByte(buffer[i]) || buffer[i] == '=') ) {
+            i -= 1;
+        }
+        if ( open == '<' ) {
+            // @prefix ex: <IRI>, PREFIX ex: <IRI>, Prefix: ex: <IRI>,
+            // Prefix(ex:=<IRI>)
+            if ( i < 0 || buffer[i] != ':' ) {
+                return null;
+            }
+            int nameEnd = i--;
+            while ( i >= 0 && nameEnd - i <= MAX_NAME_LENGTH && isNameByte(buffer[i]) ) {
+                i -= 1;
+            }
+            if ( i < 0 || !(isSpaceByte(buffer[i]) || buffer[i] == '(') ) {
+                return null;
+            }
+            return Arrays.copyOfRange(buffer, i + 1, nameEnd + 1);
+        } else if ( i >= 0 && buffer[i] == ':' ) {
+            // "ex": "IRI"
+            i -= 1;
+            while ( i >= 0 && isSpaceByte(buffer[i]) ) {
+                i -= 1;
+            }
+            if ( i < 0 || buffer[i] != '"' ) {
+                return null;
+            }
+            int nameEnd = i--;
+            while ( i >= 0 && nameEnd - i <= MAX_NAME_LENGTH && isNameByte(buffer[i]) ) {
+                i -= 1;
+            }
+            if ( i == nameEnd - 1 || i < 0 || buffer[i] != '"' ) {
+                return null;
+            }
+            byte[] name = Arrays.copyOfRange(buffer, i + 1, nameEnd + 1);
+            name[name.length - 1] = ':';
+            return name;
+        } else {
+            // xmlns:ex="IRI"
+            int nameEnd = i + 1;
+            while ( i >= 0 && nameEnd - i <= MAX_NAME_LENGTH && isNameByte(buffer[i]) ) {
+                i -= 1;
+            }
+            if ( i == nameEnd - 1 || i < XMLNS.length || buffer[i] != ':'
+                    || !Arrays.equals(buffer, i - XMLNS.length, i, XMLNS, 0, XMLNS.length) ) {
+                return null;
+            }
+            byte[] name = Arrays.copyOfRange(buffer, i + 1, nameEnd + 1);
+            name[name.length - 1] = ':';
+            return name;
+        }
+    }
+
+    private static boolean contains(byte[][] tokens, byte[] token) {
+        for ( byte[] t : tokens ) {
+            if ( Arrays.equals(t, token) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(byte[] buffer, int offset, int len, byte[] expected) {
+        if ( offset + expected.length > len ) {
+            return false;
+        }
+        for ( int i = 1; i < expected.length; i++ ) {
+            if ( buffer[offset + i] != expected[i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameByte(byte b) {
+        return isWordByte(b) || b == '-' || b == '.';
+    }
+
+    private static boolean isSpaceByte(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private static boolean isWordByte(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_';
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+/**
+ * An interface to check whether the numerical portion of an identifier is
+ * already in use.
+ * <p>
+ * This is the numerical counterpart of {@link IExistenceChecker}, for checkers
+ * that can answer without having the full identifier formatted first. When a
+ * generator is given a {@link IExistenceChecker} that also implements this
+ * interface, it calls {@link #exists(int)} directly and only formats the IDs it
+ * actually issues; both methods must then agree for all the IDs in the format
+ * of that generator. Checkers that are bound to a given format should expose
+ * it through {@link #getFormat()}, so that they are not used directly with
+ * generators for another format.
+ */
+public interface IIntExistenceChecker {
+
+    /**
+     * Checks whether the given numerical ID already exists.
+     * 
+     * @param n The numerical portion of the identifier to check.
+     * @return {@code true} if the identifier exists, {@code false} otherwise.
+     */
+    public boolean exists(int n);
+
+    /**
+     * Finds the lowest free numerical ID within the given interval.
+     * <p>
+     * The default implementation checks all IDs in turn, starting from the lower
+     * bound. Implementations that can answer more efficiently should override
+     * it.
+     * 
+     * @param from The lower bound (inclusive) of the interval.
+     * @param to   The upper bound (exclusive) of the interval.
+     * @return The lowest free numerical ID, or -1 if all IDs in the interval are
+     *         in use.
+     */
+    public default int nextFree(int from, int to) {
+        for ( int n = from; n < to; n++ ) {
+            if ( !exists(n) ) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the format of the identifiers whose numerical portion this checker
+     * expects.
+     * <p>
+     * The default implementation returns {@code null}, meaning that the checker
+     * is not bound to a known format and is assumed to be suitable for any
+     * format it is used with.
+     * 
+     * @return The ID format, or {@code null} if unknown.
+     */
+    public default IDFormat getFormat() {
+        return null;
+    }
+
+    /**
+     * Gets a numerical checker from a string-based one.
+     * 
+     * @param checker The string-based checker.
+     * @param format  The format of the identifiers to check.
+     * @return The checker itself if it already implements this interface and is
+     *         not bound to a different format, otherwise a checker that formats
+     *         the numerical IDs and forwards them to the string-based checker.
+     */
+    public static IIntExistenceChecker fromChecker(IExistenceChecker checker, IDFormat format) {
+        if ( checker instanceof IIntExistenceChecker ) {
+            IIntExistenceChecker intChecker = (IIntExistenceChecker) checker;
+            IDFormat checkerFormat = intChecker.getFormat();
+            if ( checkerFormat == null || checkerFormat.isSameAs(format) ) {
+                return intChecker;
+            }
+        }
+        return (n) -> checker.exists(format.format(n));
+    }
+
+    /**
+     * Gets a string-based checker from a numerical one. The returned object
+     * implements both interfaces, so that generators can still use the
+     * numerical checker directly.
+     * 
+     * @param checker The numerical checker.
+     * @param format  The format of the identifiers to check. Identifiers that do
+     *                not conform to that format are reported as not existing.
+     * @return A string-based checker that parses identifiers and forwards their
+     *         numerical portion to the numerical checker.
+     */
+    public static IExistenceChecker toChecker(IIntExistenceChecker checker, IDFormat format) {
+        return new IntExistenceCheckerAdapter(checker, format);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+/**
+ * An interface for objects that can generate the numerical portion of new
+ * identifiers.
+ * <p>
+ * This is the numerical counterpart of {@link IAutoIDGenerator}, for callers
+ * that only need the numbers (for example to store them in a compact index) and
+ * do not want to pay for the formatting of the IDs.
+ */
+public interface INumericIDGenerator {
+
+    /**
+     * Generates the numerical portion of a new identifier.
+     * 
+     * @return The newly generated numerical ID.
+     * @throws IDNotFoundException If the generator cannot generate a new ID.
+     */
+    public int nextNumber() throws IDNotFoundException;
+
+    /**
+     * Gets a string-based generator from a numerical one.
+     * 
+     * @param generator The numerical generator.
+     * @param format    The format to apply to the generated numerical IDs.
+     * @return A generator that formats the IDs generated by the numerical
+     *         generator.
+     */
+    public static IAutoIDGenerator toGenerator(INumericIDGenerator generator, IDFormat format) {
+        return () -> format.format(generator.nextNumber());
+    }
+
+    /**
+     * Gets a numerical generator from a string-based one.
+     * 
+     * @param generator The string-based generator.
+     * @param format    The format of the IDs generated by the string-based
+     *                  generator.
+     * @return The generator itself if it already implements this interface,
+     *         otherwise a generator that parses the IDs generated by the
+     *         string-based generator.
+     */
+    public static INumericIDGenerator fromGenerator(IAutoIDGenerator generator, IDFormat format) {
+        if ( generator instanceof INumericIDGenerator ) {
+            return (INumericIDGenerator) generator;
+        }
+        return () -> {
+            String id = generator.nextID();
+            int n = format.parse(id);
+            if ( n == -1 ) {
+                throw new IDNotFoundException("Generated ID does not match the expected format: %s", id);
+            }
+            return n;
+        };
+    }
+}
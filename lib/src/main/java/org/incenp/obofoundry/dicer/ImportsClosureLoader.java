@@ -0,0 +1,232 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.ManchesterSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.OBODocumentFormat;
+import org.semanticweb.owlapi.formats.OWLXMLDocumentFormat;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.formats.TurtleDocumentFormat;
+import org.semanticweb.owlapi.io.IRIDocumentSource;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+/**
+ * Loads an ontology and its imports closure, to index the IDs they use.
+ * <p>
+ * When loading an ontology, OWLAPI loads each imported ontology in turn, one
+ * after the other. This class instead parses each ontology on its own, without
+ * letting OWLAPI follow the imports; the imports declarations found in each
+ * ontology are then resolved (through an optional IRI mapper, typically an
+ * XML catalog), and all the imported ontologies are parsed in parallel on the
+ * common fork-join pool. Each ontology is parsed by its own manager, and only
+ * by the parser matching the extension of its document, if that extension is
+ * unambiguous.
+ * <p>
+ * Since each ontology is parsed in isolation, this is only suitable for
+ * ontologies whose parsing does not depend on the declarations found in the
+ * imported ontologies, which is the case for all the usual OBO formats (RDF/XML,
+ * Turtle, OWL Functional Syntax, OBO).
+ */
+public class ImportsClosureLoader {
+
+    private OWLOntologyIRIMapper mapper;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param mapper The object to use to find the document of an imported
+     *               ontology. May be {@code null}, in which case imported
+     *               ontologies are fetched from their IRI.
+     */
+    public ImportsClosureLoader(OWLOntologyIRIMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Indexes the IDs used in an ontology and, optionally, its imports closure.
+     * <p>
+     * The imports closure is always loaded, so that a missing import is
+     * reported as an error regardless of whether the IDs in the imported
+     * ontologies are to be indexed.
+     * 
+     * @param format                 The format of the IDs to index.
+     * @param file                   The file containing the ontology.
+     * @param imports                Whether to index the IDs used in the
+     *                               imported ontologies as well.
+     * @param withAnnotationSubjects Whether to index IRIs that are only used as
+     *                               subjects of annotation assertions.
+     * @return The index of the IDs used in the ontology.
+     * @throws IOException If the ontology or any of its imports cannot be
+     *                     loaded.
+     */
+    public UsedIDIndex index(IDFormat format, Path file, Imports imports, boolean withAnnotationSubjects)
+            throws IOException {
+        LoadTask root = new LoadTask(format, IRI.create(file.toAbsolutePath().normalize().toUri()), null,
+                imports == Imports.INCLUDED, withAnnotationSubjects, ConcurrentHashMap.newKeySet());
+        try {
+            return ForkJoinPool.commonPool().submit(root).get();
+        } catch ( ExecutionException e ) {
+            for ( Throwable t = e.getCause(); t != null; t = t.getCause() ) {
+                if ( t instanceof UncheckedIOException ) {
+                    throw ((UncheckedIOException) t).getCause();
+                }
+            }
+            throw new IOException(e.getCause());
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Gets the format of an ontology document from the extension of its name.
+     * 
+     * @param name The name of the document (a filename or an IRI).
+     * @return The format of the document, or {@code null} if the extension does
+     *         not unambiguously identify a format (as is notably the case for
+     *         the {@code .owl} extension).
+     */
+    public static OWLDocumentFormat getFormatHint(String name) {
+        int dot = name.lastIndexOf('.');
+        if ( dot == -1 || name.indexOf('/', dot) != -1 ) {
+            return null;
+        }
+        switch ( name.substring(dot + 1).toLowerCase(Locale.ROOT) ) {
+        case "ttl":
+            return new TurtleDocumentFormat();
+        case "ofn":
+            return new FunctionalSyntaxDocumentFormat();
+        case "omn":
+            return new ManchesterSyntaxDocumentFormat();
+        case "obo":
+            return new OBODocumentFormat();
+        case "owx":
+            return new OWLXMLDocumentFormat();
+        case "rdf":
+            return new RDFXMLDocumentFormat();
+        default:
+            return null;
+        }
+    }
+
+    /*
+     * Resolves an imported ontology to its document, through the mapper if we have
+     * one. The mapper is queried from several threads at once, so it must be
+     * thread-safe.
+     */
+    private IRI resolve(IRI ontologyIRI) {
+        IRI documentIRI = mapper != null ? mapper.getDocumentIRI(ontologyIRI) : null;
+        return documentIRI != null ? documentIRI : ontologyIRI;
+    }
+
+    /*
+     * A configuration that prevents OWLAPI from loading any import by itself.
+     */
+    @SuppressWarnings("serial")
+    private static class NoImportsConfiguration extends OWLOntologyLoaderConfiguration {
+        @Override
+        public boolean isIgnoredImport(IRI iri) {
+            return true;
+        }
+    }
+
+    /*
+     * Loads one ontology and, recursively, its imports. The parentIndexed flag is
+     * null for the root ontology.
+     */
+    @SuppressWarnings("serial")
+    private class LoadTask extends RecursiveTask<UsedIDIndex> {
+        private IDFormat format;
+        private IRI document;
+        private Boolean parentIndexed;
+        private boolean withImports;
+        private boolean withAnnotationSubjects;
+        private Set<IRI> visited;
+
+        LoadTask(IDFormat format, IRI document, Boolean parentIndexed, boolean withImports,
+                boolean withAnnotationSubjects, Set<IRI> visited) {
+            this.format = format;
+            this.document = document;
+            this.parentIndexed = parentIndexed;
+            this.withImports = withImports;
+            this.withAnnotationSubjects = withAnnotationSubjects;
+            this.visited = visited;
+        }
+
+        @Override
+        protected UsedIDIndex compute() {
+            visited.add(document);
+            OWLOntology ontology;
+            try {
+                OWLOntologyDocumentSource source = new IRIDocumentSource(document, getFormatHint(document.toString()),
+                        null);
+                ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(source,
+                        new NoImportsConfiguration());
+            } catch ( OWLOntologyCreationException e ) {
+                throw new UncheckedIOException(
+                        new IOException(String.format("Cannot load %s: %s", document, e.getMessage()), e));
+            }
+
+            // OWLAPI merges the contents of an anonymous imported ontology into the
+            // importing ontology, so we do the same.
+            boolean indexed = parentIndexed == null || withImports
+                    || (parentIndexed && ontology.getOntologyID().isAnonymous());
+
+            List<LoadTask> subtasks = new ArrayList<>();
+            for ( OWLImportsDeclaration decl : ontology.getImportsDeclarations() ) {
+                IRI imported = resolve(decl.getIRI());
+                if ( visited.add(imported) ) {
+                    subtasks.add(new LoadTask(format, imported, indexed, withImports, withAnnotationSubjects, visited));
+                }
+            }
+            invokeAll(subtasks);
+
+            UsedIDIndex index = indexed
+                    ? UsedIDIndex.fromOntology(format, ontology, Imports.EXCLUDED, withAnnotationSubjects)
+                    : new UsedIDIndex(format);
+            for ( LoadTask subtask : subtasks ) {
+                index.getBitmap().addAll(subtask.join().getBitmap());
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates numerical IDs sequentially within a given range, using an index of
+ * used IDs.
+ * <p>
+ * This class is similar to {@link SequentialIDGenerator}, except that instead
+ * of checking candidate IDs one by one, it directly looks up the next free ID
+ * in a {@link UsedIDIndex}. Finding a new ID therefore takes the same time
+ * regardless of how many IDs are already used in the range.
+ * <p>
+ * Generated IDs are marked as used in the index, so that several generators
+ * sharing the same index never generate the same ID.
+ */
+public class IndexedIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    private IDFormat format;
+    private int cursor;
+    private int upperBound;
+    private UsedIDIndex index;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param format The format of newly generated IDs.
+     * @param min    The lower bound (inclusive) for newly generated IDs.
+     * @param max    The upper bound (exclusive) for newly generated IDs.
+     * @param index  The index of IDs already in use.
+     * @param resume If {@code true}, the generator will start after the highest ID
+     *               already in use within the range, instead of filling the
+     *               unused IDs that may exist below it.
+     */
+    public IndexedIDGenerator(IDFormat format, int min, int max, UsedIDIndex index, boolean resume) {
+        if ( min < 0 || max <= min ) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        this.format = format;
+        this.index = index;
+        cursor = min;
+        upperBound = max;
+
+        if ( resume ) {
+            int last = index.lastUsed(min, max);
+            if ( last != -1 ) {
+                cursor = last + 1;
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance from a IDRange object.
+     * 
+     * @param range  The ID policy range for which to generate IDs.
+     * @param index  The index of IDs already in use.
+     * @param resume If {@code true}, the generator will start after the highest ID
+     *               already in use within the range.
+     */
+    public IndexedIDGenerator(IDRange range, UsedIDIndex index, boolean resume) {
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), index, resume);
+    }
+
+    /**
+     * Creates a new instance from a IDRange object, filling any unused ID in the
+     * range.
+     * 
+     * @param range The ID policy range for which to generate IDs.
+     * @param index The index of IDs already in use.
+     */
+    public IndexedIDGenerator(IDRange range, UsedIDIndex index) {
+        this(range, index, false);
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return format.format(nextNumber());
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = new char[format.getMaxLength()];
+        for ( int i = 0; i < count; i++ ) {
+            int len = format.format(nextNumber(), buffer, 0);
+            ids.add(new String(buffer, 0, len));
+        }
+        return ids;
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        int n = index.nextFree(cursor, upperBound);
+        if ( n == -1 ) {
+            cursor = upperBound;
+            throw new IDNotFoundException("No available ID in range");
+        }
+        index.add(n);
+        cursor = n + 1;
+        return n;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+/**
+ * Exposes a numerical existence checker as a string-based one.
+ * <p>
+ * Use {@link IIntExistenceChecker#toChecker(IIntExistenceChecker, IDFormat)}
+ * to obtain an instance.
+ */
+class IntExistenceCheckerAdapter implements IExistenceChecker, IIntExistenceChecker {
+
+    private IIntExistenceChecker checker;
+    private IDFormat format;
+
+    IntExistenceCheckerAdapter(IIntExistenceChecker checker, IDFormat format) {
+        this.checker = checker;
+        this.format = format;
+    }
+
+    @Override
+    public boolean exists(String id) {
+        int n = format.parse(id);
+        return n != -1 && checker.exists(n);
+    }
+
+    @Override
+    public boolean exists(int n) {
+        return checker.exists(n);
+    }
+
+    @Override
+    public int nextFree(int from, int to) {
+        return checker.nextFree(from, to);
+    }
+
+    @Override
+    public IDFormat getFormat() {
+        return format;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates numerical IDs sequentially within a given range, resuming from the
+ * last ID issued in a previous session.
+ * <p>
+ * This generator looks up the last ID issued within its range in a
+ * {@link IDJournal}, and only checks IDs after that point. Whenever IDs are
+ * issued, the journal is updated and immediately written to disk, so that the
+ * next session can in turn resume from there.
+ * <p>
+ * If the journal cannot be written, the generator throws an
+ * {@link UncheckedIOException} rather than a {@link IDNotFoundException}, so
+ * that an I/O error is not mistaken for an exhausted range. The journal is then
+ * left as it was before the failed call.
+ */
+public class JournaledIDGenerator implements IAutoIDGenerator {
+
+    private IDFormat format;
+    private int lowerBound;
+    private IDJournal journal;
+    private SequentialIDGenerator inner;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param format  The format of newly generated IDs.
+     * @param min     The lower bound (inclusive) for newly generated IDs.
+     * @param max     The upper bound (exclusive) for newly generated IDs.
+     * @param checker An object to check whether a given ID already exists.
+     * @param journal The journal to resume from and to update.
+     */
+    public JournaledIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker, IDJournal journal) {
+        this.format = format;
+        this.journal = journal;
+        lowerBound = min;
+
+        int start = Math.max(min, journal.getLastIssued(format, min) + 1);
+        inner = new SequentialIDGenerator(format, Math.min(start, max - 1), max, checker);
+        if ( start >= max ) {
+            inner = null;
+        }
+    }
+
+    /**
+     * Creates a new instance from a IDRange object.
+     * 
+     * @param range   The ID policy range for which to generate IDs.
+     * @param checker An object to check whether a given ID already exists.
+     * @param journal The journal to resume from and to update.
+     */
+    public JournaledIDGenerator(IDRange range, IExistenceChecker checker, IDJournal journal) {
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker, journal);
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        String id = getInner().nextID();
+        record(id);
+        return id;
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count == 0 ) {
+            return Collections.emptyList();
+        }
+        List<String> ids = getInner().nextIDs(count);
+        if ( !ids.isEmpty() ) {
+            record(ids.get(ids.size() - 1));
+        }
+        return ids;
+    }
+
+    private SequentialIDGenerator getInner() throws IDNotFoundException {
+        if ( inner == null ) {
+            throw new IDNotFoundException("No available ID in range");
+        }
+        return inner;
+    }
+
+    private void record(String id) {
+        int previous = journal.getLastIssued(format, lowerBound);
+        journal.record(format, lowerBound, format.parse(id));
+        try {
+            journal.save();
+        } catch ( IOException e ) {
+            journal.reset(format, lowerBound, previous);
+            throw new UncheckedIOException("Cannot update ID journal", e);
+        }
+    }
+}
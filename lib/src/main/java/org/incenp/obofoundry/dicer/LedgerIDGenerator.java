@@ -0,0 +1,124 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ID generator that records all the IDs it issues into a {@link IDLedger}.
+ * <p>
+ * This generator wraps another generator. Each ID produced by the wrapped
+ * generator is appended to the ledger before being returned; when a block of
+ * IDs is requested, the ledger is committed only once for the entire block.
+ * Since each call to {@link #nextID()} commits the ledger on its own, callers
+ * needing several IDs should request them with {@link #nextIDs(int)}.
+ * <p>
+ * If the ledger cannot be written, the generator throws an
+ * {@link UncheckedIOException} rather than a {@link IDNotFoundException}, so
+ * that an I/O error is not mistaken for an exhausted range.
+ */
+public class LedgerIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    private INumericIDGenerator inner;
+    private IDFormat format;
+    private int rangeID;
+    private IDLedger ledger;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param inner   The generator to record the IDs of. It should not produce
+     *                IDs that are already in the ledger, typically by having its
+     *                existence checker also query the ledger.
+     * @param format  The format of the IDs produced by the wrapped generator.
+     * @param rangeID The ID of the range the generated IDs belong to.
+     * @param ledger  The ledger to record issued IDs into.
+     */
+    public LedgerIDGenerator(IAutoIDGenerator inner, IDFormat format, int rangeID, IDLedger ledger) {
+        this.inner = INumericIDGenerator.fromGenerator(inner, format);
+        this.format = format;
+        this.rangeID = rangeID;
+        this.ledger = ledger;
+    }
+
+    /**
+     * Creates a new instance that generates IDs sequentially within a range,
+     * avoiding IDs that are either known to the existence checker or already
+     * recorded in the ledger.
+     * 
+     * @param range   The ID policy range for which to generate IDs.
+     * @param checker An object to check whether a given ID already exists.
+     * @param ledger  The ledger to record issued IDs into.
+     */
+    public LedgerIDGenerator(IDRange range, IExistenceChecker checker, IDLedger ledger) {
+        this(new SequentialIDGenerator(range, combine(range, checker, ledger)), range.getIDFormat(), range.getID(),
+                ledger);
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return format.format(nextNumber());
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        int n = inner.nextNumber();
+        try {
+            ledger.append(rangeID, n);
+            ledger.commit();
+        } catch ( IOException e ) {
+            throw new UncheckedIOException("Cannot record ID into ledger", e);
+        }
+        return n;
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = new char[format.getMaxLength()];
+        try {
+            try {
+                for ( int i = 0; i < count; i++ ) {
+                    int n = inner.nextNumber();
+                    ledger.append(rangeID, n);
+                    ids.add(new String(buffer, 0, format.format(n, buffer, 0)));
+                }
+            } finally {
+                // IDs issued before a failure must be recorded as well.
+                ledger.commit();
+            }
+        } catch ( IOException e ) {
+            throw new UncheckedIOException("Cannot record ID into ledger", e);
+        }
+        return ids;
+    }
+
+    private static IExistenceChecker combine(IDRange range, IExistenceChecker checker, IDLedger ledger) {
+        IDFormat format = range.getIDFormat();
+        int rangeID = range.getID();
+        IIntExistenceChecker intChecker = IIntExistenceChecker.fromChecker(checker, format);
+        return IIntExistenceChecker.toChecker((n) -> ledger.wasIssued(rangeID, n) || intChecker.exists(n), format);
+    }
+}
@@ -25,6 +25,10 @@ import org.semanticweb.owlapi.model.OWLSignature;
  * An IExistenceChecker implementation that uses a OWLSignature object as the
  * backend. That is, it will consider that a given ID exists / is in use if it
  * is present in the signature.
+ * <p>
+ * Each check is forwarded to OWLAPI. When many IDs are to be checked against
+ * the same ontology, an index built with {@link UsedIDIndex#fromOntology} is
+ * much faster.
  */
 public class OWLExistenceChecker implements IExistenceChecker {
 
@@ -0,0 +1,210 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An ID generator that verifies IDs ahead of demand, in the background.
+ * <p>
+ * This generator wraps another generator and keeps a bounded queue of IDs that
+ * have already been produced (and therefore checked) by that generator. When
+ * the number of queued IDs drops below a “low-water mark”, a background task is
+ * started to fill the queue again. This is intended for use with expensive
+ * existence checkers, so that interactive callers do not have to wait for the
+ * checks to be performed when they request a new ID.
+ * <p>
+ * The wrapped generator is only ever called from one background task at a
+ * time, so it does not need to be thread-safe. This generator itself may be
+ * used from several threads concurrently.
+ * <p>
+ * Once the wrapped generator has thrown a {@link IDNotFoundException}, this
+ * generator throws it as well as soon as the queue is empty. Any other
+ * exception thrown by the wrapped generator is rethrown as it is to the next
+ * caller that finds the queue empty, after which prefetching is attempted
+ * again.
+ * <p>
+ * Background tasks run on virtual threads if the Java runtime supports them, or
+ * on a single daemon thread otherwise. The generator should be closed when it
+ * is no longer needed, to release that thread.
+ */
+public class PrefetchingIDGenerator implements IAutoIDGenerator, Closeable {
+
+    private static final long WAIT_TIMEOUT = 50;
+
+    private IAutoIDGenerator inner;
+    private BlockingQueue<String> queue;
+    private int lowWater;
+    private ExecutorService executor;
+    private AtomicBoolean refilling = new AtomicBoolean(false);
+    private volatile IDNotFoundException failure;
+    private AtomicReference<RuntimeException> error = new AtomicReference<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param inner    The generator to prefetch IDs from.
+     * @param capacity The maximal number of IDs to prefetch.
+     * @param lowWater The number of queued IDs below which the queue should be
+     *                 filled again.
+     * @throws IllegalArgumentException If {@code capacity} is not positive, or if
+     *                                  {@code lowWater} is not lower than
+     *                                  {@code capacity}.
+     */
+    public PrefetchingIDGenerator(IAutoIDGenerator inner, int capacity, int lowWater) {
+        if ( capacity < 1 || lowWater < 0 || lowWater >= capacity ) {
+            throw new IllegalArgumentException("Invalid prefetching parameters");
+        }
+        this.inner = inner;
+        this.lowWater = lowWater;
+        queue = new ArrayBlockingQueue<>(capacity);
+        executor = createExecutor();
+        scheduleRefill();
+    }
+
+    /**
+     * Creates a new instance with a default queue size of 100 IDs, refilled when
+     * less than 25 IDs remain.
+     * 
+     * @param inner The generator to prefetch IDs from.
+     */
+    public PrefetchingIDGenerator(IAutoIDGenerator inner) {
+        this(inner, 100, 25);
+    }
+
+    /**
+     * Gets the number of IDs that are currently ready to be issued.
+     * 
+     * @return The number of queued IDs.
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        if ( closed ) {
+            throw new IDNotFoundException("Generator has been closed");
+        }
+
+        String id = queue.poll();
+        while ( id == null ) {
+            IDNotFoundException e = failure;
+            if ( e != null ) {
+                // The queue may have received its last IDs just before the
+                // wrapped generator failed.
+                id = queue.poll();
+                if ( id == null ) {
+                    throw new IDNotFoundException("%s", e.getMessage());
+                }
+                break;
+            }
+
+            RuntimeException re = error.getAndSet(null);
+            if ( re != null ) {
+                id = queue.poll();
+                if ( id == null ) {
+                    throw re;
+                }
+                break;
+            }
+
+            scheduleRefill();
+            try {
+                id = queue.poll(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch ( InterruptedException ie ) {
+                Thread.currentThread().interrupt();
+                throw new IDNotFoundException("Interrupted while waiting for an ID");
+            }
+        }
+
+        if ( queue.size() < lowWater ) {
+            scheduleRefill();
+        }
+        return id;
+    }
+
+    /**
+     * Stops prefetching IDs. IDs that were already queued are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        queue.clear();
+    }
+
+    private void scheduleRefill() {
+        // No refill while an error is waiting to be reported to a caller.
+        if ( closed || failure != null || error.get() != null || !refilling.compareAndSet(false, true) ) {
+            return;
+        }
+        try {
+            executor.execute(this::refill);
+        } catch ( RejectedExecutionException e ) {
+            refilling.set(false);
+        }
+    }
+
+    /*
+     * Fills the queue up to its capacity. Only one instance of this method is
+     * running at any time, so it is the only producer and offering to the queue
+     * cannot fail as long as there is remaining capacity.
+     */
+    private void refill() {
+        try {
+            while ( !closed && queue.remainingCapacity() > 0 ) {
+                queue.offer(inner.nextID());
+            }
+        } catch ( IDNotFoundException e ) {
+            failure = e;
+        } catch ( RuntimeException e ) {
+            error.set(e);
+        } finally {
+            refilling.set(false);
+        }
+
+        // Some IDs may have been consumed after we stopped filling the queue but
+        // before the flag was cleared, in which case no refill was scheduled.
+        if ( queue.size() < lowWater ) {
+            scheduleRefill();
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch ( ReflectiveOperationException e ) {
+            return Executors.newSingleThreadExecutor((r) -> {
+                Thread t = new Thread(r, "dicer-prefetch");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
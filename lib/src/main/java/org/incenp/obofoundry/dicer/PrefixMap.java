@@ -0,0 +1,452 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A set of prefix declarations, to convert IRIs to their short form (“CURIEs”)
+ * and back.
+ * <p>
+ * Both the IRI prefixes and the prefix names are stored in tries, so that
+ * contracting an IRI or expanding a CURIE takes a time proportional to the
+ * length of the ID, regardless of the number of declared prefixes, and does not
+ * create any string other than the result.
+ * <p>
+ * When several prefix names are declared for the same IRI prefix, the first
+ * declaration is used to contract IRIs; all names can be expanded. When IRI
+ * prefixes overlap, the longest matching prefix is used.
+ */
+public class PrefixMap {
+
+    private Node iriPrefixes = new Node();
+    private Node prefixNames = new Node();
+    private int size;
+
+    /**
+     * Declares a new prefix.
+     * 
+     * @param name      The prefix name, without the colon.
+     * @param iriPrefix The IRI prefix.
+     * @return {@code true} if the prefix was declared, {@code false} if a prefix
+     *         with the same name already exists.
+     */
+    public boolean add(String name, String iriPrefix) {
+        Node nameNode = prefixNames.walk(name);
+        if ( nameNode.value != null ) {
+            return false;
+        }
+        nameNode.value = iriPrefix;
+
+        Node iriNode = iriPrefixes.walk(iriPrefix);
+        if ( iriNode.value == null ) {
+            iriNode.value = name;
+        }
+        size += 1;
+        return true;
+    }
+
+    /**
+     * Gets the number of declared prefixes.
+     * 
+     * @return The number of prefix names in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Converts an IRI to its short form.
+     * 
+     * @param iri The IRI to contract.
+     * @return The corresponding CURIE, or {@code null} if the IRI does not start
+     *         with any of the declared prefixes.
+     */
+    public String contract(CharSequence iri) {
+        Node node = iriPrefixes;
+        String name = null;
+        int matched = 0;
+        int len = iri.length();
+        for ( int i = 0; i < len && node != null; i++ ) {
+            node = node.get(iri.charAt(i));
+            if ( node != null && node.value != null ) {
+                name = node.value;
+                matched = i + 1;
+            }
+        }
+        if ( name == null ) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(name.length() + 1 + len - matched);
+        sb.append(name);
+        sb.append(':');
+        sb.append(iri, matched, len);
+        return sb.toString();
+    }
+
+    /**
+     * Converts a CURIE to a full-length IRI.
+     * 
+     * @param curie The CURIE to expand.
+     * @return The corresponding IRI, or {@code null} if the argument is not a
+     *         CURIE with a declared prefix name.
+     */
+    public String expand(CharSequence curie) {
+        Node node = prefixNames;
+        int len = curie.length();
+        for ( int i = 0; i < len && node != null; i++ ) {
+            char c = curie.charAt(i);
+            if ( c == ':' ) {
+                if ( node.value == null ) {
+                    return null;
+                }
+                StringBuilder sb = new StringBuilder(node.value.length() + len - i - 1);
+                sb.append(node.value);
+                sb.append(curie, i + 1, len);
+                return sb.toString();
+            }
+            node = node.get(c);
+        }
+        return null;
+    }
+
+    /**
+     * Gets an existence checker that accepts both IRIs and CURIEs.
+     * <p>
+     * CURIEs with a declared prefix name are expanded before being passed to the
+     * given checker; all other IDs are passed unchanged. This allows to check IDs
+     * generated in short form against a source (such as an ontology) that only
+     * knows full-length IRIs.
+     * 
+     * @param checker The checker to forward expanded IDs to.
+     * @return The expanding checker.
+     */
+    public IExistenceChecker getExpandingChecker(IExistenceChecker checker) {
+        return (id) -> {
+            String iri = expand(id);
+            return checker.exists(iri != null ? iri : id);
+        };
+    }
+
+    /**
+     * Loads prefix declarations from a file.
+     * 
+     * @param filename The name of the file to read.
+     * @return The prefix map.
+     * @throws IOException If any I/O error occurs when reading the file, or if the
+     *                     file is not a valid prefix file.
+     * @see #read(Reader)
+     */
+    public static PrefixMap load(String filename) throws IOException {
+        try ( Reader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8) ) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads prefix declarations.
+     * <p>
+     * Two formats are supported:
+     * <ul>
+     * <li>a JSON-LD context (as published by the OBO Foundry or the
+     * Bioregistry), where the {@code @context} object maps prefix names to either
+     * IRI prefixes or objects with an {@code @id} member;
+     * <li>a simple text file (TSV or whitespace-separated) with one prefix name
+     * and one IRI prefix per line; lines starting with {@code #} and lines whose
+     * second field is not an IRI (such as a header line) are ignored.
+     * </ul>
+     * 
+     * @param reader The source to read the declarations from.
+     * @return The prefix map.
+     * @throws IOException If any I/O error occurs when reading, or if the
+     *                     declarations are not in any of the supported formats.
+     */
+    public static PrefixMap read(Reader reader) throws IOException {
+        BufferedReader br = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        br.mark(1);
+        int c;
+        while ( (c = br.read()) != -1 && Character.isWhitespace(c) ) {
+            br.mark(1);
+        }
+        br.reset();
+
+        PrefixMap map = new PrefixMap();
+        if ( c == '{' ) {
+            map.readContext(br);
+        } else {
+            map.readText(br);
+        }
+        return map;
+    }
+
+    private void readText(BufferedReader reader) throws IOException {
+        String line;
+        while ( (line = reader.readLine()) != null ) {
+            line = line.trim();
+            if ( line.isEmpty() || line.charAt(0) == '#' ) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if ( fields.length >= 2 && fields[1].indexOf(':') != -1 ) {
+                add(fields[0], fields[1]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readContext(BufferedReader reader) throws IOException {
+        Object document = new JsonParser(reader).parse();
+        if ( !(document instanceof Map) ) {
+            throw new IOException("Invalid JSON-LD context");
+        }
+        Object context = ((Map<String, Object>) document).get("@context");
+        if ( !(context instanceof Map) ) {
+            throw new IOException("Invalid JSON-LD context: missing @context object");
+        }
+        for ( Map.Entry<String, Object> entry : ((Map<String, Object>) context).entrySet() ) {
+            if ( entry.getKey().startsWith("@") ) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if ( value instanceof Map ) {
+                value = ((Map<String, Object>) value).get("@id");
+            }
+            if ( value instanceof String ) {
+                add(entry.getKey(), (String) value);
+            }
+        }
+    }
+
+    /*
+     * A node in a trie. Children are kept in arrays sorted by their key
+     * character, and looked up by binary search.
+     */
+    private static class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int count;
+        private String value;
+
+        Node get(char c) {
+            int i = Arrays.binarySearch(keys, 0, count, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node walk(String s) {
+            Node node = this;
+            for ( int i = 0, n = s.length(); i < n; i++ ) {
+                node = node.getOrAdd(s.charAt(i));
+            }
+            return node;
+        }
+
+        private Node getOrAdd(char c) {
+            int i = Arrays.binarySearch(keys, 0, count, c);
+            if ( i >= 0 ) {
+                return children[i];
+            }
+
+            i = -i - 1;
+            if ( count == keys.length ) {
+                int capacity = Math.max(2, count * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, i, keys, i + 1, count - i);
+            System.arraycopy(children, i, children, i + 1, count - i);
+            keys[i] = c;
+            children[i] = new Node();
+            count += 1;
+            return children[i];
+        }
+    }
+
+    /*
+     * A minimal JSON parser, just enough to read a JSON-LD context. Objects are
+     * returned as maps, arrays are skipped, strings are returned as is, and any
+     * other scalar value is returned as its raw text.
+     */
+    private static class JsonParser {
+        private Reader reader;
+        private int current;
+
+        JsonParser(Reader reader) throws IOException {
+            this.reader = reader;
+            current = reader.read();
+        }
+
+        Object parse() throws IOException {
+            skipWhitespace();
+            switch ( current ) {
+            case '{':
+                return parseObject();
+            case '[':
+                skipArray();
+                return null;
+            case '"':
+                return parseString();
+            case -1:
+                throw new IOException("Invalid JSON: unexpected end of file");
+            default:
+                return parseScalar();
+            }
+        }
+
+        private Map<String, Object> parseObject() throws IOException {
+            // Keep the members in declaration order: the first name declared for an
+            // IRI prefix is the one used for contraction.
+            LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+            advance();
+            skipWhitespace();
+            if ( current == '}' ) {
+                advance();
+                return map;
+            }
+            while ( true ) {
+                skipWhitespace();
+                if ( current != '"' ) {
+                    throw new IOException("Invalid JSON: expected object key");
+                }
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                map.put(key, parse());
+                skipWhitespace();
+                if ( current == ',' ) {
+                    advance();
+                } else {
+                    expect('}');
+                    return map;
+                }
+            }
+        }
+
+        private void skipArray() throws IOException {
+            advance();
+            skipWhitespace();
+            if ( current == ']' ) {
+                advance();
+                return;
+            }
+            while ( true ) {
+                parse();
+                skipWhitespace();
+                if ( current == ',' ) {
+                    advance();
+                } else {
+                    expect(']');
+                    return;
+                }
+            }
+        }
+
+        private String parseString() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            advance();
+            while ( current != '"' ) {
+                if ( current == -1 ) {
+                    throw new IOException("Invalid JSON: unterminated string");
+                }
+                if ( current == '\\' ) {
+                    advance();
+                    switch ( current ) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'u':
+                        char[] hex = new char[4];
+                        for ( int i = 0; i < 4; i++ ) {
+                            advance();
+                            hex[i] = (char) current;
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch ( NumberFormatException e ) {
+                            throw new IOException("Invalid JSON: invalid unicode escape");
+                        }
+                        break;
+                    case -1:
+                        throw new IOException("Invalid JSON: unterminated string");
+                    default:
+                        sb.append((char) current);
+                    }
+                } else {
+                    sb.append((char) current);
+                }
+                advance();
+            }
+            advance();
+            return sb.toString();
+        }
+
+        private String parseScalar() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while ( current != -1 && current != ',' && current != '}' && current != ']'
+                    && !Character.isWhitespace(current) ) {
+                sb.append((char) current);
+                advance();
+            }
+            if ( sb.length() == 0 ) {
+                throw new IOException("Invalid JSON: unexpected character");
+            }
+            return sb.toString();
+        }
+
+        private void expect(char c) throws IOException {
+            if ( current != c ) {
+                throw new IOException(String.format("Invalid JSON: expected '%c'", c));
+            }
+            advance();
+        }
+
+        private void skipWhitespace() throws IOException {
+            while ( current != -1 && Character.isWhitespace(current) ) {
+                advance();
+            }
+        }
+
+        private void advance() throws IOException {
+            current = reader.read();
+        }
+    }
+}
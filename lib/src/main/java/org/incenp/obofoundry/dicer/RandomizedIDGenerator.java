@@ -18,7 +18,9 @@
 
 package org.incenp.obofoundry.dicer;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -28,7 +30,8 @@ import java.util.Random;
  */
 public class RandomizedIDGenerator implements IAutoIDGenerator {
 
-    private String format;
+    private IDFormat format;
+    private String formatString;
     private int lowerBound;
     private int upperBound;
     private boolean lowerBoundFound = false;
@@ -39,6 +42,12 @@ public class RandomizedIDGenerator implements IAutoIDGenerator {
     /**
      * Creates a new instance.
      * 
+     * <p>
+     * If the format string is supported by
+     * {@link IDFormat#fromFormatString(String)}, it is compiled once and for all;
+     * otherwise, IDs are formatted with {@link String#format(String, Object...)}
+     * as in previous versions.
+     * 
      * @param format  The format of newly generated IDs. It must contain a C-style
      *                format specifier indicating where and how the numerical
      *                portion of the ID should appear.
@@ -49,6 +58,23 @@ public class RandomizedIDGenerator implements IAutoIDGenerator {
      *                already in use.
      */
     public RandomizedIDGenerator(String format, int min, int max, IExistenceChecker checker) {
+        this(IDFormat.tryFromFormatString(format), min, max, checker);
+        if ( this.format == null ) {
+            formatString = format;
+        }
+    }
+
+    /**
+     * Creates a new instance with a precompiled ID format.
+     * 
+     * @param format  The format of newly generated IDs.
+     * @param min     The lower bound (inclusive) for newly generated IDs.
+     * @param max     The upper bound (exclusive) for newly generated IDs.
+     * @param checker An object to check whether a given ID already exists; the
+     *                generator will call it to avoid generating IDs that are
+     *                already in use.
+     */
+    public RandomizedIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker) {
         if ( min < 0 || max <= min ) {
             throw new IllegalArgumentException("Invalid range");
         }
@@ -67,28 +93,60 @@ public class RandomizedIDGenerator implements IAutoIDGenerator {
      *                already in use.
      */
     public RandomizedIDGenerator(IDRange range, IExistenceChecker checker) {
-        this(range.getFormat(), range.getLowerBound(), range.getUpperBound(), checker);
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker);
     }
 
     @Override
     public String nextID() throws IDNotFoundException {
-        // Find the lowest unused ID within the range, so that we can start testing
-        // random IDs from there.
+        findLowerBound();
+        return nextRandomID();
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+
+        // The search for the lowest unused ID only needs to be done once for the
+        // entire block.
+        findLowerBound();
+        if ( count > upperBound - lowerBound - generatedIDs.size() ) {
+            throw new IDNotFoundException("No available ID in range");
+        }
+
+        ArrayList<String> ids = new ArrayList<>(count);
+        for ( int i = 0; i < count; i++ ) {
+            ids.add(nextRandomID());
+        }
+        return ids;
+    }
+
+    /*
+     * Finds the lowest unused ID within the range, so that we can start testing
+     * random IDs from there.
+     */
+    private void findLowerBound() {
         while ( !lowerBoundFound && lowerBound < upperBound ) {
-            String test = String.format(format, lowerBound);
+            String test = format(lowerBound);
             if ( !checker.exists(test) ) {
                 lowerBoundFound = true;
             } else {
                 lowerBound += 1;
             }
         }
+    }
 
+    /*
+     * Picks a random unused ID above the lowest unused ID.
+     */
+    private String nextRandomID() throws IDNotFoundException {
         boolean found = false;
         int i = lowerBound;
         String id = null;
         do {
             i += rand.nextInt(100);
-            id = String.format(format, i);
+            id = format(i);
             found = !checker.exists(id) && !generatedIDs.contains(id);
         } while ( i < upperBound && !found );
 
@@ -99,4 +157,8 @@ public class RandomizedIDGenerator implements IAutoIDGenerator {
         generatedIDs.add(id);
         return id;
     }
+
+    private String format(int n) {
+        return format != null ? format.format(n) : String.format(formatString, n);
+    }
 }
@@ -18,19 +18,29 @@
 
 package org.incenp.obofoundry.dicer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Generates numerical IDs sequentially within a given range.
  */
-public class SequentialIDGenerator implements IAutoIDGenerator {
+public class SequentialIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
 
-    private String format;
+    private IDFormat format;
+    private String formatString;
     private int lowerBound;
     private int upperBound;
-    private IExistenceChecker checker;
+    private IIntExistenceChecker checker;
 
     /**
      * Creates a new instance.
      * 
+     * <p>
+     * If the format string is supported by
+     * {@link IDFormat#fromFormatString(String)}, it is compiled once and for all;
+     * otherwise, IDs are formatted with {@link String#format(String, Object...)}
+     * as in previous versions.
+     * 
      * @param format  The format of newly generated IDs. It must contain a C-style
      *                format specified where and how the numerical portion of the ID
      *                should appear.
@@ -41,11 +51,31 @@ public class SequentialIDGenerator implements IAutoIDGenerator {
      *                already in use.
      */
     public SequentialIDGenerator(String format, int min, int max, IExistenceChecker checker) {
+        this(IDFormat.tryFromFormatString(format), min, max, checker);
+        if ( this.format == null ) {
+            formatString = format;
+            this.checker = (n) -> checker.exists(String.format(format, n));
+        }
+    }
+
+    /**
+     * Creates a new instance with a precompiled ID format.
+     * 
+     * @param format  The format of newly generated IDs.
+     * @param min     The lower bound (inclusive) for newly generated IDs.
+     * @param max     The upper bound (exclusive) for newly generated IDs.
+     * @param checker An object to check whether a given ID already exists; the
+     *                generator will call it to avoid generating IDs that are
+     *                already in use.
+     */
+    public SequentialIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker) {
         if ( min < 0 || max <= min ) {
             throw new IllegalArgumentException("Invalid range");
         }
         this.format = format;
-        this.checker = checker;
+        if ( format != null ) {
+            this.checker = IIntExistenceChecker.fromChecker(checker, format);
+        }
         lowerBound = min;
         upperBound = max;
     }
@@ -59,17 +89,57 @@ public class SequentialIDGenerator implements IAutoIDGenerator {
      *                already in use.
      */
     public SequentialIDGenerator(IDRange range, IExistenceChecker checker) {
-        this(range.getFormat(), range.getLowerBound(), range.getUpperBound(), checker);
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker);
     }
 
     @Override
     public String nextID() throws IDNotFoundException {
+        return format(nextNumber());
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
         while ( lowerBound < upperBound ) {
-            String id = String.format(format, lowerBound++);
-            if ( !checker.exists(id) ) {
-                return id;
+            int n = lowerBound++;
+            if ( !checker.exists(n) ) {
+                return n;
             }
         }
         throw new IDNotFoundException("No available ID in range");
     }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        if ( count > upperBound - lowerBound ) {
+            // No need to even try, there cannot be enough room left in the range.
+            throw new IDNotFoundException("No available ID in range");
+        }
+
+        // Use a single buffer for the entire block, rather than a new buffer for
+        // each ID.
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = format != null ? new char[format.getMaxLength()] : null;
+        int n = lowerBound;
+        while ( ids.size() < count && n < upperBound ) {
+            if ( !checker.exists(n) ) {
+                ids.add(buffer != null ? new String(buffer, 0, format.format(n, buffer, 0)) : format(n));
+            }
+            n += 1;
+        }
+
+        if ( ids.size() < count ) {
+            // Leave the generator untouched, so that smaller requests may still
+            // succeed.
+            throw new IDNotFoundException("No available ID in range");
+        }
+        lowerBound = n;
+        return ids;
+    }
+
+    private String format(int n) {
+        return format != null ? format.format(n) : String.format(formatString, n);
+    }
 }
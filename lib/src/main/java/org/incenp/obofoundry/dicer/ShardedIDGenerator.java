@@ -0,0 +1,266 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates numerical IDs within one shard of a range.
+ * <p>
+ * The range is split deterministically into a given number of disjoint shards,
+ * so that several nodes can each generate IDs from their own shard of the same
+ * range without any coordination: two generators created with the same range,
+ * the same number of shards and the same mode but different shard indexes
+ * never produce the same ID.
+ * <p>
+ * A generator only moves forward within its shard when it issues IDs; a
+ * request for a block of IDs that cannot be satisfied leaves it untouched. The
+ * last ID issued by a generator can be obtained with {@link #getLastIssued()},
+ * and a new generator can be made to resume right after it.
+ * <p>
+ * Once a node has exhausted its own shard, the IDs left unused in the shard of
+ * another node can be recovered by creating a generator for that shard, once
+ * the node that owned it is known to have stopped. To be safe, that generator
+ * should resume after the last ID issued by the stopped node, if it is known;
+ * in any case, its existence checker must know about all the IDs the stopped
+ * node has issued, including those that have not made it into the ontology
+ * yet (for example, by querying the {@link IDLedger} or {@link IDClaimFile}
+ * shared by all nodes). Otherwise, IDs already handed out by the stopped node
+ * would be issued again.
+ */
+public class ShardedIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    /**
+     * How a range is split into shards.
+     */
+    public enum Mode {
+        /**
+         * Each shard is made of every N-th ID in the range, where N is the number
+         * of shards. This keeps all nodes minting from the same region of the
+         * range.
+         */
+        STRIDED,
+
+        /**
+         * Each shard is a contiguous block of IDs, of roughly the same size as all
+         * other blocks.
+         */
+        BLOCKED
+    }
+
+    private IDFormat format;
+    private IIntExistenceChecker checker;
+    private int first;
+    private int step;
+    private int size;
+    private int next = 0;
+    private int last = -1;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param format     The format of newly generated IDs.
+     * @param min        The lower bound (inclusive) of the whole range.
+     * @param max        The upper bound (exclusive) of the whole range.
+     * @param checker    An object to check whether a given ID already exists.
+     * @param shard      The index of the shard to generate IDs from, between 0
+     *                   (inclusive) and {@code shardCount} (exclusive).
+     * @param shardCount The number of shards the range is split into.
+     * @param mode       How the range is split into shards.
+     * @throws IllegalArgumentException If the range is invalid, if the shard
+     *                                  index is out of bounds, or if the range is
+     *                                  smaller than the number of shards.
+     */
+    public ShardedIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker, int shard, int shardCount,
+            Mode mode) {
+        this(format, min, max, checker, shard, shardCount, mode, -1);
+    }
+
+    /**
+     * Creates a new instance that resumes generating IDs from a given point in
+     * the shard.
+     * 
+     * @param format      The format of newly generated IDs.
+     * @param min         The lower bound (inclusive) of the whole range.
+     * @param max         The upper bound (exclusive) of the whole range.
+     * @param checker     An object to check whether a given ID already exists.
+     * @param shard       The index of the shard to generate IDs from, between 0
+     *                    (inclusive) and {@code shardCount} (exclusive).
+     * @param shardCount  The number of shards the range is split into.
+     * @param mode        How the range is split into shards.
+     * @param resumeAfter The last ID issued from the shard (as returned by
+     *                    {@link #getLastIssued()}); the generator will only
+     *                    produce IDs that come after it. Use -1 to start from the
+     *                    beginning of the shard.
+     * @throws IllegalArgumentException If the range is invalid, if the shard
+     *                                  index is out of bounds, if the range is
+     *                                  smaller than the number of shards, or if
+     *                                  {@code resumeAfter} is not in the shard.
+     */
+    public ShardedIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker, int shard, int shardCount,
+            Mode mode, int resumeAfter) {
+        if ( min < 0 || max <= min ) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        if ( shardCount < 1 || shard < 0 || shard >= shardCount || shardCount > max - min ) {
+            throw new IllegalArgumentException("Invalid shard");
+        }
+        this.format = format;
+        this.checker = IIntExistenceChecker.fromChecker(checker, format);
+
+        long rangeSize = (long) max - min;
+        if ( mode == Mode.STRIDED ) {
+            first = min + shard;
+            step = shardCount;
+            size = (int) ((rangeSize - shard + shardCount - 1) / shardCount);
+        } else {
+            first = (int) (min + rangeSize * shard / shardCount);
+            step = 1;
+            size = (int) (min + rangeSize * (shard + 1) / shardCount) - first;
+        }
+
+        if ( resumeAfter != -1 ) {
+            if ( !isInShard(resumeAfter) ) {
+                throw new IllegalArgumentException("Resume point not in shard");
+            }
+            next = (resumeAfter - first) / step + 1;
+            last = resumeAfter;
+        }
+    }
+
+    /**
+     * Creates a new instance from a IDRange object.
+     * 
+     * @param range      The ID policy range to split into shards.
+     * @param checker    An object to check whether a given ID already exists.
+     * @param shard      The index of the shard to generate IDs from.
+     * @param shardCount The number of shards the range is split into.
+     * @param mode       How the range is split into shards.
+     */
+    public ShardedIDGenerator(IDRange range, IExistenceChecker checker, int shard, int shardCount, Mode mode) {
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker, shard, shardCount, mode);
+    }
+
+    /**
+     * Creates a new instance from a IDRange object, resuming from a given point
+     * in the shard.
+     * 
+     * @param range       The ID policy range to split into shards.
+     * @param checker     An object to check whether a given ID already exists.
+     * @param shard       The index of the shard to generate IDs from.
+     * @param shardCount  The number of shards the range is split into.
+     * @param mode        How the range is split into shards.
+     * @param resumeAfter The last ID issued from the shard, or -1 to start from
+     *                    the beginning of the shard.
+     */
+    public ShardedIDGenerator(IDRange range, IExistenceChecker checker, int shard, int shardCount, Mode mode,
+            int resumeAfter) {
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker, shard, shardCount, mode,
+                resumeAfter);
+    }
+
+    /**
+     * Gets the number of IDs in the shard.
+     * 
+     * @return The shard size.
+     */
+    public int getShardSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of IDs in the shard that have not been considered yet.
+     * Some of them may already be in use.
+     * 
+     * @return The number of remaining candidates.
+     */
+    public int getRemaining() {
+        return size - next;
+    }
+
+    /**
+     * Gets the last ID issued by this generator, or the ID it was told to resume
+     * after.
+     * 
+     * @return The last issued numerical ID, or -1 if no ID has been issued yet.
+     */
+    public int getLastIssued() {
+        return last;
+    }
+
+    /**
+     * Checks whether a numerical ID belongs to the shard.
+     * 
+     * @param n The numerical ID to check.
+     * @return {@code true} if this generator could produce the ID, otherwise
+     *         {@code false}.
+     */
+    public boolean isInShard(int n) {
+        long offset = (long) n - first;
+        return offset >= 0 && offset % step == 0 && offset / step < size;
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return format.format(nextNumber());
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        while ( next < size ) {
+            int n = first + next++ * step;
+            if ( !checker.exists(n) ) {
+                last = n;
+                return n;
+            }
+        }
+        throw new IDNotFoundException("No available ID in shard");
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        if ( count > size - next ) {
+            throw new IDNotFoundException("No available ID in shard");
+        }
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = new char[format.getMaxLength()];
+        int i = next;
+        int n = last;
+        while ( ids.size() < count && i < size ) {
+            int candidate = first + i++ * step;
+            if ( !checker.exists(candidate) ) {
+                n = candidate;
+                ids.add(new String(buffer, 0, format.format(n, buffer, 0)));
+            }
+        }
+
+        if ( ids.size() < count ) {
+            // Leave the generator untouched, so that smaller requests may still
+            // succeed.
+            throw new IDNotFoundException("No available ID in shard");
+        }
+        next = i;
+        last = n;
+        return ids;
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Generates numerical IDs within a given range, for many threads at once.
+ * <p>
+ * The range is split into a number of contiguous stripes, and each thread using
+ * the generator is assigned its own stripe, from which it generates IDs
+ * sequentially without contending with the other threads. When a thread has
+ * exhausted its stripe, it steals the upper half of the stripe that has the
+ * most IDs left.
+ * <p>
+ * The number of stripes should be at least the number of threads that will use
+ * the generator. Threads in excess do not get a stripe of their own and always
+ * take their IDs from other threads’ stripes; this remains correct, but those
+ * threads then contend with the stripe owners.
+ * <p>
+ * A thread keeps its stripe for as long as it is alive. Once it has terminated,
+ * its stripe (with whatever IDs are left in it) is handed over to the next
+ * thread that needs one, so that short-lived threads do not use up all the
+ * stripes.
+ * <p>
+ * As with {@link ConcurrentSequentialIDGenerator}, the existence checker must
+ * be safe to call from several threads concurrently.
+ */
+public class StripedIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    private IDFormat format;
+    private IIntExistenceChecker checker;
+    private AtomicLongArray stripes;
+    private AtomicReferenceArray<WeakReference<Thread>> owners;
+    private AtomicInteger inFlight = new AtomicInteger();
+    private ThreadLocal<Integer> home = ThreadLocal.withInitial(() -> -1);
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param format  The format of newly generated IDs.
+     * @param min     The lower bound (inclusive) for newly generated IDs.
+     * @param max     The upper bound (exclusive) for newly generated IDs.
+     * @param checker An object to check whether a given ID already exists. It must
+     *                be safe to call from several threads concurrently.
+     * @param stripes The number of stripes to split the range into.
+     */
+    public StripedIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker, int stripes) {
+        if ( min < 0 || max <= min ) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        if ( stripes < 1 ) {
+            throw new IllegalArgumentException("Invalid number of stripes");
+        }
+        this.format = format;
+        this.checker = IIntExistenceChecker.fromChecker(checker, format);
+
+        long size = max - min;
+        this.stripes = new AtomicLongArray(stripes);
+        owners = new AtomicReferenceArray<>(stripes);
+        for ( int i = 0; i < stripes; i++ ) {
+            int start = (int) (min + size * i / stripes);
+            int end = (int) (min + size * (i + 1) / stripes);
+            this.stripes.set(i, pack(start, end));
+        }
+    }
+
+    /**
+     * Creates a new instance from a IDRange object.
+     * 
+     * @param range   The ID policy range for which to generate IDs.
+     * @param checker An object to check whether a given ID already exists. It must
+     *                be safe to call from several threads concurrently.
+     * @param stripes The number of stripes to split the range into.
+     */
+    public StripedIDGenerator(IDRange range, IExistenceChecker checker, int stripes) {
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker, stripes);
+    }
+
+    /**
+     * Creates a new instance from a IDRange object, with one stripe per available
+     * processor.
+     * 
+     * @param range   The ID policy range for which to generate IDs.
+     * @param checker An object to check whether a given ID already exists. It must
+     *                be safe to call from several threads concurrently.
+     */
+    public StripedIDGenerator(IDRange range, IExistenceChecker checker) {
+        this(range, checker, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return format.format(nextNumber());
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        int h = getHome();
+        int n;
+        while ( (n = nextCandidate(h)) != -1 ) {
+            if ( !checker.exists(n) ) {
+                return n;
+            }
+        }
+        throw new IDNotFoundException("No available ID in range");
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        int h = getHome();
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = new char[format.getMaxLength()];
+        while ( ids.size() < count ) {
+            int n = nextCandidate(h);
+            if ( n == -1 ) {
+                throw new IDNotFoundException("No available ID in range");
+            }
+            if ( !checker.exists(n) ) {
+                ids.add(new String(buffer, 0, format.format(n, buffer, 0)));
+            }
+        }
+        return ids;
+    }
+
+    /*
+     * Gets the stripe of the current thread, trying to get one if it does not
+     * have one yet. Returns -1 if all stripes are owned by live threads.
+     */
+    private int getHome() {
+        int h = home.get();
+        if ( h == -1 ) {
+            h = claimStripe();
+            if ( h != -1 ) {
+                home.set(h);
+            }
+        }
+        return h;
+    }
+
+    /*
+     * Claims a stripe that has never been owned, or whose owner has terminated.
+     */
+    private int claimStripe() {
+        WeakReference<Thread> self = null;
+        for ( int i = 0; i < owners.length(); i++ ) {
+            WeakReference<Thread> ref = owners.get(i);
+            Thread owner = ref != null ? ref.get() : null;
+            if ( owner == null || !owner.isAlive() ) {
+                if ( self == null ) {
+                    self = new WeakReference<>(Thread.currentThread());
+                }
+                if ( owners.compareAndSet(i, ref, self) ) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Gets the next candidate for the current thread, from its own stripe if
+     * possible, otherwise from another thread's stripe. Returns -1 if all stripes
+     * are exhausted.
+     */
+    private int nextCandidate(int h) {
+        if ( h != -1 ) {
+            int n = take(h);
+            if ( n != -1 ) {
+                return n;
+            }
+        }
+
+        while ( true ) {
+            // Find the stripe with the most IDs left.
+            int victim = -1;
+            long victimState = 0;
+            int remaining = 0;
+            for ( int i = 0; i < stripes.length(); i++ ) {
+                long state = stripes.get(i);
+                int r = end(state) - cursor(state);
+                if ( r > remaining ) {
+                    victim = i;
+                    victimState = state;
+                    remaining = r;
+                }
+            }
+
+            if ( victim == -1 ) {
+                // All stripes look empty, but IDs may be in flight between two
+                // stripes; only give up if no thread is currently stealing.
+                if ( inFlight.get() == 0 && isExhausted() ) {
+                    return -1;
+                }
+                Thread.yield();
+                continue;
+            }
+
+            int start = cursor(victimState);
+            int end = end(victimState);
+            if ( h == -1 || remaining == 1 ) {
+                // Take a single ID from the victim's stripe.
+                if ( stripes.compareAndSet(victim, victimState, pack(start + 1, end)) ) {
+                    return start;
+                }
+                continue;
+            }
+
+            // Steal the upper half of the victim's stripe into our own stripe. The
+            // victim always keeps at least one ID. Our own stripe is empty, so no
+            // other thread will touch it until we have refilled it.
+            int mid = start + remaining / 2;
+            inFlight.incrementAndGet();
+            try {
+                if ( stripes.compareAndSet(victim, victimState, pack(start, mid)) ) {
+                    stripes.set(h, pack(mid + 1, end));
+                    return mid;
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /*
+     * Takes the next ID from the given stripe. Returns -1 if the stripe is empty.
+     */
+    private int take(int stripe) {
+        while ( true ) {
+            long state = stripes.get(stripe);
+            int cursor = cursor(state);
+            int end = end(state);
+            if ( cursor >= end ) {
+                return -1;
+            }
+            if ( stripes.compareAndSet(stripe, state, pack(cursor + 1, end)) ) {
+                return cursor;
+            }
+        }
+    }
+
+    private boolean isExhausted() {
+        for ( int i = 0; i < stripes.length(); i++ ) {
+            long state = stripes.get(i);
+            if ( cursor(state) < end(state) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long pack(int cursor, int end) {
+        return ((long) cursor << 32) | end;
+    }
+
+    private static int cursor(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int end(long state) {
+        return (int) state;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An existence checker that combines several other checkers (“tiers”).
+ * <p>
+ * Tiers are queried in the order they were added, which should be from the
+ * cheapest to the most expensive; an ID is considered to exist as soon as one
+ * tier reports it, and the remaining tiers are not queried. The results (both
+ * positive and negative) of the most recent checks are kept in a bounded cache,
+ * so that checking the same ID again does not hit any tier.
+ * <p>
+ * This checker can also be queried by numerical ID. Tiers that implement
+ * {@link IIntExistenceChecker} (and are not bound to another format) are then
+ * queried directly with the number; other tiers are queried with the ID
+ * formatted according to the format given to the constructor.
+ * <p>
+ * Since negative results are cached, an ID that becomes used in one of the
+ * tiers after it was checked may still be reported as free; use
+ * {@link #invalidate(String)} or {@link #clearCache()} if the tiers can change
+ * while the checker is in use.
+ * <p>
+ * This class is thread-safe, provided the tiers themselves are.
+ */
+public class TieredExistenceChecker implements IExistenceChecker, IIntExistenceChecker {
+
+    private IDFormat format;
+    private List<Tier> tiers = new CopyOnWriteArrayList<>();
+    private Map<Object, Boolean> cache;
+    private AtomicLong cacheHits = new AtomicLong();
+    private AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Creates a new instance without any tier.
+     * 
+     * @param format    The format of the IDs to check. It is used to format
+     *                  numerical IDs for the tiers that can only be queried by
+     *                  string.
+     * @param cacheSize The maximal number of results to cache. When the cache is
+     *                  full, the least recently used result is evicted. Set to
+     *                  zero to disable caching.
+     */
+    @SuppressWarnings("serial")
+    public TieredExistenceChecker(IDFormat format, int cacheSize) {
+        if ( cacheSize < 0 ) {
+            throw new IllegalArgumentException("Invalid negative cache size");
+        }
+        this.format = format;
+        if ( cacheSize > 0 ) {
+            cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Boolean> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        }
+    }
+
+    /**
+     * Adds a tier after all the existing ones.
+     * 
+     * @param name    A name for the tier, for reporting purposes.
+     * @param checker The checker for this tier. If it also implements
+     *                {@link IIntExistenceChecker} and is not bound to a
+     *                different format, numerical queries are forwarded to it
+     *                without formatting the ID.
+     */
+    public void addTier(String name, IExistenceChecker checker) {
+        tiers.add(new Tier(name, checker, format));
+    }
+
+    /**
+     * Gets the statistics for all the tiers, in the order they are queried.
+     * 
+     * @return A read-only list of per-tier statistics.
+     */
+    public List<Tier> getTiers() {
+        return Collections.unmodifiableList(tiers);
+    }
+
+    /**
+     * Gets the number of checks that were answered from the cache.
+     * 
+     * @return The number of cache hits.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Gets the number of checks that had to query the tiers.
+     * 
+     * @return The number of cache misses.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Finds the lowest free numerical ID within the given interval.
+     * <p>
+     * Numerical tiers are asked for their own lowest free ID, so that runs of IDs
+     * known to be used by an index are skipped without checking them one by one.
+     * A candidate free in all numerical tiers is then checked against all tiers,
+     * as with {@link #exists(int)}.
+     */
+    @Override
+    public int nextFree(int from, int to) {
+        int n = from;
+        while ( n < to ) {
+            boolean moved;
+            do {
+                moved = false;
+                for ( Tier tier : tiers ) {
+                    if ( tier.intChecker != null ) {
+                        int m = tier.intChecker.nextFree(n, to);
+                        if ( m == -1 ) {
+                            return -1;
+                        } else if ( m != n ) {
+                            n = m;
+                            moved = true;
+                        }
+                    }
+                }
+            } while ( moved );
+
+            if ( !exists(n) ) {
+                return n;
+            }
+            n += 1;
+        }
+        return -1;
+    }
+
+    @Override
+    public IDFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Removes the cached result for an ID, if any. This forgets about both the
+     * result of checking that ID as a string and, if it is in the expected
+     * format, the result of checking its numerical portion.
+     * 
+     * @param id The ID to forget about.
+     */
+    public void invalidate(String id) {
+        if ( cache != null ) {
+            int n = format.parse(id);
+            synchronized ( cache ) {
+                cache.remove(id);
+                if ( n != -1 ) {
+                    cache.remove(n);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the cached result for a numerical ID, if any. This forgets about
+     * both the result of checking that number and the result of checking the
+     * corresponding formatted ID.
+     * 
+     * @param n The numerical ID to forget about.
+     */
+    public void invalidate(int n) {
+        invalidate(format.format(n));
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clearCache() {
+        if ( cache != null ) {
+            synchronized ( cache ) {
+                cache.clear();
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String id) {
+        Boolean cached = getCached(id);
+        if ( cached != null ) {
+            return cached;
+        }
+
+        boolean found = false;
+        for ( Tier tier : tiers ) {
+            if ( tier.check(id) ) {
+                found = true;
+                break;
+            }
+        }
+        putCached(id, found);
+        return found;
+    }
+
+    @Override
+    public boolean exists(int n) {
+        Boolean cached = getCached(n);
+        if ( cached != null ) {
+            return cached;
+        }
+
+        boolean found = false;
+        String id = null;
+        for ( Tier tier : tiers ) {
+            if ( tier.intChecker != null ) {
+                found = tier.check(n);
+            } else {
+                if ( id == null ) {
+                    id = format.format(n);
+                }
+                found = tier.check(id);
+            }
+            if ( found ) {
+                break;
+            }
+        }
+        putCached(n, found);
+        return found;
+    }
+
+    private Boolean getCached(Object key) {
+        if ( cache != null ) {
+            Boolean cached;
+            synchronized ( cache ) {
+                cached = cache.get(key);
+            }
+            if ( cached != null ) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+        }
+        cacheMisses.incrementAndGet();
+        return null;
+    }
+
+    private void putCached(Object key, boolean found) {
+        if ( cache != null ) {
+            synchronized ( cache ) {
+                cache.put(key, found);
+            }
+        }
+    }
+
+    /**
+     * A single tier of a {@link TieredExistenceChecker}, with its statistics.
+     */
+    public static class Tier {
+        private String name;
+        private IExistenceChecker checker;
+        private IIntExistenceChecker intChecker;
+        private AtomicLong queries = new AtomicLong();
+        private AtomicLong hits = new AtomicLong();
+
+        private Tier(String name, IExistenceChecker checker, IDFormat format) {
+            this.name = name;
+            this.checker = checker;
+            if ( checker instanceof IIntExistenceChecker ) {
+                IDFormat tierFormat = ((IIntExistenceChecker) checker).getFormat();
+                if ( tierFormat == null || tierFormat.isSameAs(format) ) {
+                    intChecker = (IIntExistenceChecker) checker;
+                }
+            }
+        }
+
+        private boolean check(String id) {
+            return count(checker.exists(id));
+        }
+
+        private boolean check(int n) {
+            return count(intChecker.exists(n));
+        }
+
+        private boolean count(boolean found) {
+            queries.incrementAndGet();
+            if ( found ) {
+                hits.incrementAndGet();
+            }
+            return found;
+        }
+
+        /**
+         * Gets the name of this tier.
+         * 
+         * @return The tier name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of times this tier has been queried.
+         * 
+         * @return The number of queries.
+         */
+        public long getQueries() {
+            return queries.get();
+        }
+
+        /**
+         * Gets the number of times this tier has reported an ID as existing.
+         * 
+         * @return The number of hits.
+         */
+        public long getHits() {
+            return hits.get();
+        }
+
+        /**
+         * Gets the proportion of queries to this tier that were hits.
+         * 
+         * @return The hit rate, between 0 and 1 (0 if the tier has never been
+         *         queried).
+         */
+        public double getHitRate() {
+            long n = queries.get();
+            return n > 0 ? (double) hits.get() / n : 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates numerical IDs picked uniformly at random among the free IDs of a
+ * given range.
+ * <p>
+ * Contrary to {@link RandomizedIDGenerator}, this generator does not test
+ * random candidates until it finds a free one. Instead, it keeps track of all
+ * the free IDs in the range in a {@link FreeIDTree}, and directly picks the
+ * k-th free ID for a random k. Generating an ID therefore takes logarithmic
+ * time and is unbiased, however full the range already is.
+ * <p>
+ * The free IDs are determined once, when the first ID is requested, either by
+ * querying the existence checker for every ID in the range or, if the checker
+ * is a {@link UsedIDIndex}, directly from the index.
+ */
+public class UniformRandomIDGenerator implements IAutoIDGenerator, INumericIDGenerator {
+
+    private IDFormat format;
+    private int lowerBound;
+    private int upperBound;
+    private IExistenceChecker checker;
+    private Random rand;
+    private FreeIDTree freeIDs;
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param format  The format of newly generated IDs.
+     * @param min     The lower bound (inclusive) for newly generated IDs.
+     * @param max     The upper bound (exclusive) for newly generated IDs.
+     * @param checker An object to check whether a given ID already exists.
+     * @param rand    The source of randomness.
+     */
+    public UniformRandomIDGenerator(IDFormat format, int min, int max, IExistenceChecker checker, Random rand) {
+        if ( min < 0 || max <= min ) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        this.format = format;
+        this.checker = checker;
+        this.rand = rand;
+        lowerBound = min;
+        upperBound = max;
+    }
+
+    /**
+     * Creates a new instance from a IDRange object.
+     * 
+     * @param range   The ID policy range for which to generate IDs.
+     * @param checker An object to check whether a given ID already exists.
+     */
+    public UniformRandomIDGenerator(IDRange range, IExistenceChecker checker) {
+        this(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker, new Random());
+    }
+
+    @Override
+    public String nextID() throws IDNotFoundException {
+        return format.format(nextNumber());
+    }
+
+    @Override
+    public List<String> nextIDs(int count) throws IDNotFoundException {
+        if ( count < 0 ) {
+            throw new IllegalArgumentException("Invalid negative ID count");
+        }
+        if ( count > getFreeIDs().countFree() ) {
+            throw new IDNotFoundException("No available ID in range");
+        }
+
+        ArrayList<String> ids = new ArrayList<>(count);
+        char[] buffer = new char[format.getMaxLength()];
+        for ( int i = 0; i < count; i++ ) {
+            int len = format.format(nextNumber(), buffer, 0);
+            ids.add(new String(buffer, 0, len));
+        }
+        return ids;
+    }
+
+    @Override
+    public int nextNumber() throws IDNotFoundException {
+        FreeIDTree tree = getFreeIDs();
+        if ( tree.countFree() == 0 ) {
+            throw new IDNotFoundException("No available ID in range");
+        }
+        int n = tree.select(rand.nextInt(tree.countFree()));
+        tree.markUsed(n);
+        return n;
+    }
+
+    private FreeIDTree getFreeIDs() {
+        if ( freeIDs == null ) {
+            if ( checker instanceof UsedIDIndex ) {
+                freeIDs = new FreeIDTree(lowerBound, upperBound, (UsedIDIndex) checker);
+            } else {
+                freeIDs = new FreeIDTree(lowerBound, upperBound);
+                IIntExistenceChecker intChecker = IIntExistenceChecker.fromChecker(checker, format);
+                for ( int i = lowerBound; i < upperBound; i++ ) {
+                    if ( intChecker.exists(i) ) {
+                        freeIDs.markUsed(i);
+                    }
+                }
+            }
+        }
+        return freeIDs;
+    }
+}
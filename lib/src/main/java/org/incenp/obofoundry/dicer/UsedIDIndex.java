@@ -0,0 +1,342 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSignature;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+/**
+ * An index of the IDs that are already in use, keyed on their numerical
+ * portion.
+ * <p>
+ * This class can be used as a {@link IExistenceChecker} (or a
+ * {@link IIntExistenceChecker}) that answers in constant time, regardless of
+ * how the set of used IDs was originally obtained.
+ * It is also used by {@link IndexedIDGenerator} to find free IDs without having
+ * to check candidate IDs one by one.
+ */
+public class UsedIDIndex implements IExistenceChecker, IIntExistenceChecker {
+
+    private IDFormat format;
+    private IDBitmap used;
+
+    /**
+     * Creates a new empty index.
+     * 
+     * @param format The format of the IDs to index.
+     */
+    public UsedIDIndex(IDFormat format) {
+        this(format, new IDBitmap());
+    }
+
+    /**
+     * Creates a new index from an existing set of numerical IDs.
+     * 
+     * @param format The format of the IDs to index.
+     * @param used   The numerical portions of the IDs already in use. The index
+     *               takes ownership of that set, which must not be modified
+     *               afterwards except through the index itself.
+     */
+    public UsedIDIndex(IDFormat format, IDBitmap used) {
+        this.format = format;
+        this.used = used;
+    }
+
+    /**
+     * Creates a new index by querying an existing checker for every possible ID
+     * within the given interval.
+     * <p>
+     * This is an expensive operation if the interval is large, but it only has to
+     * be done once, after which all further existence checks can be answered by
+     * the index.
+     * 
+     * @param format  The format of the IDs to index.
+     * @param min     The lower bound (inclusive) of the numerical IDs to check.
+     * @param max     The upper bound (exclusive) of the numerical IDs to check.
+     * @param checker The checker to query.
+     * @return The newly created index.
+     */
+    public static UsedIDIndex fromChecker(IDFormat format, int min, int max, IExistenceChecker checker) {
+        UsedIDIndex index = new UsedIDIndex(format);
+        char[] buffer = new char[format.getMaxLength()];
+        for ( int i = min; i < max; i++ ) {
+            int len = format.format(i, buffer, 0);
+            if ( checker.exists(new String(buffer, 0, len)) ) {
+                index.used.add(i);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Creates a new index by querying an existing checker for every possible ID
+     * within the given range.
+     * 
+     * @param range   The range for which to build the index.
+     * @param checker The checker to query.
+     * @return The newly created index.
+     */
+    public static UsedIDIndex fromChecker(IDRange range, IExistenceChecker checker) {
+        return fromChecker(range.getIDFormat(), range.getLowerBound(), range.getUpperBound(), checker);
+    }
+
+    /**
+     * Creates a new index from all the entities in a signature (typically an
+     * ontology).
+     * 
+     * @param format    The format of the IDs to index. Entities whose IRI does not
+     *                  conform to that format are ignored.
+     * @param signature The signature whose entities should be indexed.
+     * @return The newly created index.
+     */
+    public static UsedIDIndex fromSignature(IDFormat format, OWLSignature signature) {
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.addAll(signature.getClassesInSignature(Imports.EXCLUDED));
+        index.addAll(signature.getObjectPropertiesInSignature(Imports.EXCLUDED));
+        index.addAll(signature.getDataPropertiesInSignature(Imports.EXCLUDED));
+        index.addAll(signature.getAnnotationPropertiesInSignature(Imports.EXCLUDED));
+        index.addAll(signature.getIndividualsInSignature(Imports.EXCLUDED));
+        index.addAll(signature.getDatatypesInSignature(Imports.EXCLUDED));
+        return index;
+    }
+
+    /**
+     * Creates a new index from an ontology, in a single pass over its signature.
+     * <p>
+     * This is the preferred way of checking IDs against a large ontology: once
+     * the index is built, checking an ID is a single bitmap lookup, instead of the
+     * several lookups performed by OWLAPI for each call to
+     * {@link OWLSignature#containsEntityInSignature(IRI)}.
+     * 
+     * @param format                 The format of the IDs to index. Entities
+     *                               whose IRI does not conform to that format
+     *                               are ignored.
+     * @param ontology               The ontology whose entities should be
+     *                               indexed.
+     * @param imports                Whether to also index the entities of the
+     *                               imported ontologies.
+     * @param withAnnotationSubjects If {@code true}, IRIs that are only used as
+     *                               the subject of annotation assertions, without
+     *                               being declared as entities, are also
+     *                               considered as used.
+     * @return The newly created index.
+     */
+    public static UsedIDIndex fromOntology(IDFormat format, OWLOntology ontology, Imports imports,
+            boolean withAnnotationSubjects) {
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.addAll(ontology.getSignature(imports));
+        if ( withAnnotationSubjects ) {
+            for ( OWLAnnotationAssertionAxiom ax : ontology.getAxioms(AxiomType.ANNOTATION_ASSERTION, imports) ) {
+                if ( ax.getSubject() instanceof IRI ) {
+                    index.add(ax.getSubject().toString());
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Creates a new index from several files, each of them being indexed on its
+     * own task in the common fork-join pool.
+     * <p>
+     * The total time needed to build the index is therefore mostly determined by
+     * the time needed to index the largest file, rather than by the sum of the
+     * time needed to index all the files.
+     * 
+     * @param format  The format of the IDs to index.
+     * @param files   The files to index.
+     * @param indexer The function to apply to each file to get its own index.
+     * @return A new index containing all the IDs found in any of the files.
+     * @throws IOException If any I/O error occurs when indexing any of the files.
+     *                     If several files cannot be indexed, only the first
+     *                     error is reported.
+     */
+    public static UsedIDIndex fromFiles(IDFormat format, Collection<Path> files, FileIndexer indexer)
+            throws IOException {
+        List<ForkJoinTask<UsedIDIndex>> tasks = new ArrayList<>();
+        for ( Path file : files ) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                try {
+                    return indexer.index(file);
+                } catch ( IOException e ) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+
+        UsedIDIndex index = new UsedIDIndex(format);
+        IOException error = null;
+        for ( ForkJoinTask<UsedIDIndex> task : tasks ) {
+            try {
+                index.used.addAll(task.get().used);
+            } catch ( ExecutionException e ) {
+                if ( error == null ) {
+                    error = e.getCause() instanceof UncheckedIOException
+                            ? ((UncheckedIOException) e.getCause()).getCause()
+                            : new IOException(e.getCause());
+                }
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        if ( error != null ) {
+            throw error;
+        }
+        return index;
+    }
+
+    private void addAll(Set<? extends OWLEntity> entities) {
+        for ( OWLEntity entity : entities ) {
+            add(entity.getIRI().toString());
+        }
+    }
+
+    /**
+     * A function to build the index of a single file.
+     */
+    @FunctionalInterface
+    public interface FileIndexer {
+        /**
+         * Indexes the IDs used in a file.
+         * 
+         * @param file The file to index.
+         * @return The index of the IDs used in the file.
+         * @throws IOException If any I/O error occurs when reading the file.
+         */
+        UsedIDIndex index(Path file) throws IOException;
+    }
+
+    /**
+     * Gets the format of the IDs in this index.
+     * 
+     * @return The ID format.
+     */
+    @Override
+    public IDFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the set of used numerical IDs underlying this index.
+     * 
+     * @return The set of numerical IDs.
+     */
+    public IDBitmap getBitmap() {
+        return used;
+    }
+
+    /**
+     * Marks an ID as being used.
+     * 
+     * @param id The ID to mark.
+     * @return {@code true} if the ID conforms to the format of this index and was
+     *         not already marked as used, otherwise {@code false}.
+     */
+    public boolean add(String id) {
+        int n = format.parse(id);
+        return n != -1 && used.add(n);
+    }
+
+    /**
+     * Marks a numerical ID as being used.
+     * 
+     * @param n The numerical portion of the ID to mark.
+     * @return {@code true} if the ID was not already marked as used.
+     */
+    public boolean add(int n) {
+        return used.add(n);
+    }
+
+    /**
+     * Checks whether a numerical ID is in use.
+     * 
+     * @param n The numerical portion of the ID to check.
+     * @return {@code true} if the ID is in use, otherwise {@code false}.
+     */
+    public boolean contains(int n) {
+        return used.contains(n);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        int n = format.parse(id);
+        return n != -1 && used.contains(n);
+    }
+
+    @Override
+    public boolean exists(int n) {
+        return used.contains(n);
+    }
+
+    /**
+     * Finds the lowest free numerical ID within the given interval.
+     * 
+     * @param from The lower bound (inclusive) of the interval.
+     * @param to   The upper bound (exclusive) of the interval.
+     * @return The lowest free numerical ID, or -1 if all IDs in the interval are
+     *         in use.
+     */
+    @Override
+    public int nextFree(int from, int to) {
+        int n = from < to ? used.nextClearBit(from) : -1;
+        return n != -1 && n < to ? n : -1;
+    }
+
+    /**
+     * Finds the highest used numerical ID within the given interval.
+     * 
+     * @param from The lower bound (inclusive) of the interval.
+     * @param to   The upper bound (exclusive) of the interval.
+     * @return The highest used numerical ID, or -1 if no ID in the interval is in
+     *         use.
+     */
+    public int lastUsed(int from, int to) {
+        int n = from < to ? used.previousSetBit(to - 1) : -1;
+        return n >= from ? n : -1;
+    }
+
+    /**
+     * Counts the used IDs within the given interval.
+     * 
+     * @param from The lower bound (inclusive) of the interval.
+     * @param to   The upper bound (exclusive) of the interval.
+     * @return The number of used IDs in the interval.
+     */
+    public int countUsed(int from, int to) {
+        return used.cardinality(from, to);
+    }
+}
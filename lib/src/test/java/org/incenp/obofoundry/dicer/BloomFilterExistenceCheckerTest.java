@@ -0,0 +1,78 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterExistenceCheckerTest {
+
+    private IDFormat format = new IDFormat("https://example.org/EX_", 7);
+
+    @Test
+    void testOnlyPossibleHitsReachBackend() {
+        Set<String> used = new HashSet<>();
+        IDBloomFilter filter = IDBloomFilter.create(10, 0.0001);
+        for ( int i = 100; i < 110; i++ ) {
+            used.add(format.format(i));
+            filter.add(i);
+        }
+
+        Set<String> queried = new HashSet<>();
+        IExistenceChecker backend = (id) -> {
+            queried.add(id);
+            return used.contains(id);
+        };
+        BloomFilterExistenceChecker checker = new BloomFilterExistenceChecker(backend, format, filter);
+
+        Assertions.assertTrue(checker.exists("https://example.org/EX_0000105"));
+        Assertions.assertTrue(checker.exists(109));
+        Assertions.assertEquals(2, queried.size());
+
+        queried.clear();
+        int free = 0;
+        for ( int i = 1000; i < 2000; i++ ) {
+            if ( !checker.exists(i) ) {
+                free += 1;
+            }
+        }
+        Assertions.assertEquals(1000, free);
+        Assertions.assertTrue(queried.size() < 5);
+
+        // IDs in another format bypass the filter
+        queried.clear();
+        Assertions.assertFalse(checker.exists("https://example.org/OTHER_0000001"));
+        Assertions.assertEquals(1, queried.size());
+    }
+
+    @Test
+    void testGeneratorWithFilter() throws IDNotFoundException {
+        IDBitmap used = new IDBitmap();
+        used.addRange(0, 5);
+        UsedIDIndex index = new UsedIDIndex(format, used);
+        BloomFilterExistenceChecker checker = new BloomFilterExistenceChecker(index, format,
+                IDBloomFilter.fromBitmap(used, 0.01));
+
+        SequentialIDGenerator gen = new SequentialIDGenerator(format, 0, 10, checker);
+        Assertions.assertEquals("https://example.org/EX_0000005", gen.nextID());
+    }
+}
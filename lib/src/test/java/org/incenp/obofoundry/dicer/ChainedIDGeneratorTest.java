@@ -0,0 +1,90 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChainedIDGeneratorTest {
+
+    @Test
+    void testSpillOverToNextRange() throws IDNotFoundException {
+        IDPolicy policy = getTestPolicy();
+        IDFormat format = policy.getIDFormat();
+        List<IDRange> ranges = policy.getRanges("bot");
+        Assertions.assertEquals(2, ranges.size());
+
+        ChainedIDGenerator gen = new ChainedIDGenerator(ranges, (id) -> id.equals(format.format(1)));
+        Assertions.assertEquals(List.of(format.format(0), format.format(2), format.format(100)), gen.nextIDs(3));
+        Assertions.assertEquals(100, gen.getCurrentRange().getLowerBound());
+        Assertions.assertEquals(101, gen.nextNumber());
+        Assertions.assertEquals(1, gen.nextIDs(1).size());
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextID());
+    }
+
+    @Test
+    void testSkipFullRanges() throws IDNotFoundException {
+        IDPolicy policy = getTestPolicy();
+        UsedIDIndex index = new UsedIDIndex(policy.getIDFormat());
+        index.getBitmap().addRange(0, 3);
+
+        ChainedIDGenerator gen = new ChainedIDGenerator(policy.getRanges("bot"), index);
+        Assertions.assertEquals(100, gen.nextNumber());
+    }
+
+    @Test
+    void testSkipFullRangesWithNumericalChecker() throws IDNotFoundException {
+        IDPolicy policy = getTestPolicy();
+        IExistenceChecker checker = IIntExistenceChecker.toChecker((n) -> n < 3 || n == 100, policy.getIDFormat());
+
+        ChainedIDGenerator gen = new ChainedIDGenerator(policy.getRanges("bot"), checker);
+        Assertions.assertEquals(101, gen.nextNumber());
+        Assertions.assertEquals(100, gen.getCurrentRange().getLowerBound());
+    }
+
+    @Test
+    void testRangesAreOnlyCheckedWhenNeeded() throws IDNotFoundException {
+        IDPolicy policy = getTestPolicy();
+        AtomicInteger checks = new AtomicInteger();
+        IExistenceChecker checker = IIntExistenceChecker.toChecker((n) -> {
+            checks.incrementAndGet();
+            return false;
+        }, policy.getIDFormat());
+
+        ChainedIDGenerator gen = new ChainedIDGenerator(policy.getRanges("bot"), checker);
+        Assertions.assertEquals(0, checks.get());
+        Assertions.assertEquals(0, gen.nextNumber());
+        Assertions.assertTrue(checks.get() <= 2);
+    }
+
+    private IDPolicy getTestPolicy() {
+        IDPolicy policy = new IDPolicy("myont");
+        try {
+            policy.addRange(1, "bot", null, 0, 3);
+            policy.addRange(2, "user", null, 3, 100);
+            policy.addRange(3, "bot", null, 100, 103);
+        } catch ( InvalidIDPolicyException e ) {
+            Assertions.fail(e);
+        }
+        return policy;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ClaimingIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testGeneratorsShareClaims(@TempDir Path dir) throws IOException, IDNotFoundException {
+        Path file = dir.resolve("range.claims");
+        try ( IDClaimFile claims1 = IDClaimFile.open(file, 1000, 1010);
+                IDClaimFile claims2 = IDClaimFile.open(file, 1000, 1010) ) {
+            IAutoIDGenerator gen1 = new ClaimingIDGenerator(format, claims1, (id) -> id.equals(format.format(1001)));
+            IAutoIDGenerator gen2 = new ClaimingIDGenerator(format, claims2, (id) -> false);
+
+            Assertions.assertEquals(format.format(1000), gen1.nextID());
+            Assertions.assertEquals(format.format(1001), gen2.nextID());
+            Assertions.assertEquals(List.of(format.format(1002), format.format(1003)), gen1.nextIDs(2));
+            Assertions.assertEquals(format.format(1004), gen2.nextID());
+            Assertions.assertEquals(5, gen1.nextIDs(5).size());
+            Assertions.assertThrows(IDNotFoundException.class, () -> gen2.nextID());
+        }
+    }
+}
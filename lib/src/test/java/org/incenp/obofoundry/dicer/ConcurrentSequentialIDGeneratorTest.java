@@ -0,0 +1,198 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+public class ConcurrentSequentialIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    // Sink for the results of busyWork, so that the work cannot be optimised
+    // away.
+    private static volatile int sink;
+
+    // A checker that never finds any ID, but takes some time to say so.
+    private IExistenceChecker costlyChecker = (id) -> {
+        busyWork(id);
+        return false;
+    };
+
+    @Test
+    void testGenerateIDsSequentially() {
+        IAutoIDGenerator gen = new ConcurrentSequentialIDGenerator(format, 1000, 1010,
+                (id) -> id.equals("https://example.org/0001002"));
+
+        try {
+            Assertions.assertEquals("https://example.org/0001000", gen.nextID());
+            Assertions.assertEquals(List.of("https://example.org/0001001", "https://example.org/0001003"),
+                    gen.nextIDs(2));
+            Assertions.assertEquals(6, gen.nextIDs(6).size());
+            gen.nextID();
+            Assertions.fail("Expected IDNotFoundException not thrown");
+        } catch ( IDNotFoundException e ) {
+            Assertions.assertEquals("No available ID in range", e.getMessage());
+        }
+    }
+
+    @Test
+    void testNoDuplicatesUnderContention() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int perThread = 20000;
+        int size = threads * perThread + 1000;
+
+        // Every seventh ID is already in use.
+        IExistenceChecker checker = (id) -> format.parse(id) % 7 == 0;
+        IAutoIDGenerator gen = new ConcurrentSequentialIDGenerator(format, 0, size * 2, checker);
+
+        Set<String> generated = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        for ( int t = 0; t < threads; t++ ) {
+            boolean useBatches = t % 2 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                int duplicates = 0;
+                for ( int i = 0; i < perThread; i += useBatches ? 10 : 1 ) {
+                    for ( String id : useBatches ? gen.nextIDs(10) : List.of(gen.nextID()) ) {
+                        if ( !generated.add(id) ) {
+                            duplicates += 1;
+                        }
+                    }
+                }
+                return duplicates;
+            }));
+        }
+        start.countDown();
+
+        for ( Future<Integer> result : results ) {
+            Assertions.assertEquals(0, result.get());
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(threads * perThread, generated.size());
+        for ( String id : generated ) {
+            Assertions.assertFalse(checker.exists(id));
+        }
+    }
+
+    /*
+     * Compares the throughput of the generator when used from one thread and
+     * from several threads, with a checker that has a non-trivial cost (as any
+     * real checker has). Checks are done outside of any lock, so the throughput
+     * should grow almost linearly with the number of threads; a generator that
+     * serialises all calls is measured for comparison.
+     * 
+     * This test takes several seconds and depends on the load of the machine, so
+     * it only runs when the dicer.benchmarks system property is set (mvn test
+     * -Ddicer.benchmarks=true). It only fails if running on several threads is
+     * not faster than running on one, or not faster than the synchronized
+     * generator.
+     */
+    @Test
+    void testThroughputScaling(TestReporter reporter) throws Exception {
+        Assumptions.assumeTrue(Boolean.getBoolean("dicer.benchmarks"), "Benchmarks not enabled");
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        Assumptions.assumeTrue(threads > 1, "Scaling cannot be measured on a single processor");
+        int total = 200000;
+
+        // Warm-up, so that the first measurement does not include JIT compilation.
+        measureThroughput(new ConcurrentSequentialIDGenerator(format, 0, total, costlyChecker), threads, total);
+
+        double single = measureThroughput(new ConcurrentSequentialIDGenerator(format, 0, total, costlyChecker), 1,
+                total);
+        double multi = measureThroughput(new ConcurrentSequentialIDGenerator(format, 0, total, costlyChecker),
+                threads, total);
+        SequentialIDGenerator sequential = new SequentialIDGenerator(format, 0, total, costlyChecker);
+        double locked = measureThroughput(new INumericIDGenerator() {
+            @Override
+            public synchronized int nextNumber() throws IDNotFoundException {
+                return sequential.nextNumber();
+            }
+        }, threads, total);
+
+        reporter.publishEntry("threads", String.valueOf(threads));
+        reporter.publishEntry("speedup", String.format("%.2f", multi / single));
+        reporter.publishEntry("speedup (synchronized)", String.format("%.2f", locked / single));
+        Assertions.assertTrue(multi > single, "No speedup over a single thread");
+        Assertions.assertTrue(multi > locked, "No speedup over a synchronized generator");
+    }
+
+    /*
+     * Spends some time computing a hash of the given ID.
+     */
+    private static void busyWork(String id) {
+        int h = 0;
+        for ( int i = 0; i < 500; i++ ) {
+            h = 31 * h + id.charAt(i % id.length());
+        }
+        sink = h;
+    }
+
+    /*
+     * Exhausts the generator from the given number of threads, and returns the
+     * number of IDs generated per second.
+     */
+    private double measureThroughput(INumericIDGenerator gen, int threads, int total) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        for ( int t = 0; t < threads; t++ ) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int count = 0;
+                try {
+                    while ( true ) {
+                        gen.nextNumber();
+                        count += 1;
+                    }
+                } catch ( IDNotFoundException e ) {
+                }
+                return count;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        int generated = 0;
+        for ( Future<Integer> result : results ) {
+            generated += result.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        Assertions.assertEquals(total, generated);
+        return generated * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ElasticIDGeneratorTest {
+
+    @Test
+    void testExtendIntoFreeSpace() throws IDNotFoundException {
+        IDPolicy policy = new IDPolicy("myont");
+        IDRange range = addRange(policy, 1, "bot", 0, 3);
+        addRange(policy, 2, "user", 10, 100);
+        IDFormat format = policy.getIDFormat();
+
+        ElasticIDGenerator gen = new ElasticIDGenerator(range, (id) -> false, 5, null);
+        Assertions.assertEquals(List.of(format.format(0), format.format(1), format.format(2), format.format(3)),
+                gen.nextIDs(4));
+        Assertions.assertEquals(8, range.getUpperBound());
+        Assertions.assertSame(range, gen.getCurrentRange());
+    }
+
+    @Test
+    void testAllocateOverflowRange() throws IDNotFoundException {
+        IDPolicy policy = new IDPolicy("myont");
+        IDRange range = addRange(policy, 1, "bot", 0, 3);
+        addRange(policy, 2, "user", 5, 100);
+
+        ElasticIDGenerator gen = new ElasticIDGenerator(range, (id) -> false, 10, null);
+        Assertions.assertEquals(3, gen.nextIDs(3).size());
+        Assertions.assertEquals(100, gen.nextNumber());
+        Assertions.assertEquals(3, range.getUpperBound());
+
+        IDRange overflow = gen.getCurrentRange();
+        Assertions.assertEquals("bot", overflow.getName());
+        Assertions.assertEquals(100, overflow.getLowerBound());
+        Assertions.assertEquals(110, overflow.getUpperBound());
+        Assertions.assertEquals(2, policy.getRanges("bot").size());
+    }
+
+    @Test
+    void testWritePolicyBack(@TempDir Path dir) throws IOException, InvalidIDPolicyException, IDNotFoundException {
+        IDPolicy policy = new IDPolicy("myont");
+        addRange(policy, 1, "bot", 0, 2);
+        String file = dir.resolve("myont-idranges.owl").toString();
+        new IDPolicyWriter().write(policy, file);
+
+        policy = new IDPolicyReader().read(file);
+        ElasticIDGenerator gen = new ElasticIDGenerator(policy.findRangeByID(1).get(), (id) -> false, 100, file);
+        Assertions.assertEquals(3, gen.nextIDs(3).size());
+
+        IDPolicy updated = new IDPolicyReader().read(file);
+        Assertions.assertEquals(102, updated.findRange("bot").get().getUpperBound());
+    }
+
+    @Test
+    void testConcurrentGrowth(@TempDir Path dir) throws Exception {
+        IDPolicy policy = new IDPolicy("myont");
+        addRange(policy, 1, "bot", 0, 2);
+        addRange(policy, 2, "user", 1000, 1002);
+        String file = dir.resolve("myont-idranges.owl").toString();
+        new IDPolicyWriter().write(policy, file);
+
+        // Each generator reads its own copy of the policy, as separate processes
+        // would; none of the changes must be lost.
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Integer>> results = new ArrayList<>();
+        for ( int id = 1; id <= 2; id++ ) {
+            IDRange range = new IDPolicyReader().read(file).findRangeByID(id).get();
+            ElasticIDGenerator gen = new ElasticIDGenerator(range, (n) -> false, 1, file);
+            results.add(executor.submit(() -> gen.nextIDs(52).size()));
+        }
+        for ( Future<Integer> result : results ) {
+            Assertions.assertEquals(52, result.get());
+        }
+        executor.shutdown();
+
+        IDPolicy updated = new IDPolicyReader().read(file);
+        Assertions.assertEquals(52, updated.findRangeByID(1).get().getUpperBound());
+        Assertions.assertEquals(1052, updated.findRangeByID(2).get().getUpperBound());
+    }
+
+    private IDRange addRange(IDPolicy policy, int id, String name, int lower, int upper) {
+        try {
+            policy.addRange(id, name, null, lower, upper);
+        } catch ( InvalidIDPolicyException e ) {
+            Assertions.fail(e);
+        }
+        return policy.findRangeByID(id).get();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FreeIDTreeTest {
+
+    @Test
+    void testRankAndSelect() {
+        FreeIDTree tree = new FreeIDTree(1000, 2000);
+        Assertions.assertEquals(1000, tree.countFree());
+        Assertions.assertEquals(1000, tree.select(0));
+        Assertions.assertEquals(1999, tree.select(999));
+
+        Assertions.assertTrue(tree.markUsed(1000));
+        Assertions.assertFalse(tree.markUsed(1000));
+        Assertions.assertFalse(tree.markUsed(2000));
+        Assertions.assertTrue(tree.markUsed(1500));
+
+        Assertions.assertEquals(998, tree.countFree());
+        Assertions.assertEquals(1001, tree.select(0));
+        Assertions.assertEquals(1501, tree.select(499));
+        Assertions.assertEquals(0, tree.rank(1001));
+        Assertions.assertEquals(499, tree.rank(1501));
+        Assertions.assertEquals(998, tree.rank(5000));
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> tree.select(998));
+    }
+
+    @Test
+    void testAgainstBitSet() {
+        Random rand = new Random(7);
+        int min = 12345;
+        int size = 50000;
+        FreeIDTree tree = new FreeIDTree(min, min + size);
+        BitSet used = new BitSet();
+
+        for ( int i = 0; i < 40000; i++ ) {
+            int n = min + rand.nextInt(size);
+            Assertions.assertEquals(!used.get(n - min), tree.markUsed(n));
+            used.set(n - min);
+        }
+
+        int free = size - used.cardinality();
+        Assertions.assertEquals(free, tree.countFree());
+        for ( int i = 0; i < 1000; i++ ) {
+            int k = rand.nextInt(free);
+            int expected = -1;
+            for ( int j = 0, c = -1; c < k; j++ ) {
+                if ( !used.get(j) ) {
+                    c += 1;
+                    expected = j;
+                }
+            }
+            Assertions.assertEquals(min + expected, tree.select(k));
+            Assertions.assertEquals(k, tree.rank(min + expected));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IDBitmapTest {
+
+    @Test
+    void testAddRemoveContains() {
+        IDBitmap bm = new IDBitmap();
+        Assertions.assertTrue(bm.isEmpty());
+
+        Assertions.assertTrue(bm.add(12));
+        Assertions.assertFalse(bm.add(12));
+        Assertions.assertTrue(bm.add(999999999));
+        Assertions.assertTrue(bm.contains(12));
+        Assertions.assertTrue(bm.contains(999999999));
+        Assertions.assertFalse(bm.contains(13));
+        Assertions.assertFalse(bm.contains(-1));
+        Assertions.assertEquals(2, bm.cardinality());
+
+        Assertions.assertTrue(bm.remove(12));
+        Assertions.assertFalse(bm.remove(12));
+        Assertions.assertEquals(1, bm.cardinality());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bm.add(-1));
+    }
+
+    @Test
+    void testNextClearBit() {
+        IDBitmap bm = new IDBitmap();
+        Assertions.assertEquals(5, bm.nextClearBit(5));
+
+        bm.addRange(1000, 1100);
+        Assertions.assertEquals(999, bm.nextClearBit(999));
+        Assertions.assertEquals(1100, bm.nextClearBit(1000));
+
+        // A run spanning several dense chunks
+        bm.addRange(65536 - 10, 3 * 65536 + 5);
+        Assertions.assertEquals(3 * 65536 + 5, bm.nextClearBit(65536 - 10));
+        Assertions.assertEquals(3 * 65536 + 5, bm.nextClearBit(2 * 65536));
+
+        // A run ending exactly at a chunk boundary
+        bm.addRange(10 * 65536 - 5, 10 * 65536);
+        Assertions.assertEquals(10 * 65536, bm.nextClearBit(10 * 65536 - 5));
+    }
+
+    @Test
+    void testSearchAndRank() {
+        IDBitmap bm = new IDBitmap();
+        bm.add(10);
+        bm.add(70000);
+        bm.add(70001);
+        bm.addRange(200000, 210000);
+
+        Assertions.assertEquals(10, bm.nextSetBit(0));
+        Assertions.assertEquals(70000, bm.nextSetBit(11));
+        Assertions.assertEquals(200000, bm.nextSetBit(70002));
+        Assertions.assertEquals(-1, bm.nextSetBit(210000));
+
+        Assertions.assertEquals(-1, bm.previousSetBit(9));
+        Assertions.assertEquals(10, bm.previousSetBit(69999));
+        Assertions.assertEquals(70001, bm.previousSetBit(199999));
+        Assertions.assertEquals(209999, bm.previousSetBit(Integer.MAX_VALUE));
+
+        Assertions.assertEquals(0, bm.rank(10));
+        Assertions.assertEquals(1, bm.rank(11));
+        Assertions.assertEquals(3, bm.rank(200000));
+        Assertions.assertEquals(10003, bm.rank(300000));
+        Assertions.assertEquals(5000, bm.cardinality(205000, 300000));
+    }
+
+    @Test
+    void testAgainstBitSet() {
+        Random rand = new Random(42);
+        IDBitmap bm = new IDBitmap();
+        BitSet ref = new BitSet();
+
+        // Enough values concentrated in a few chunks to exercise both dense and
+        // sparse chunks, and the conversions between them.
+        for ( int i = 0; i < 50000; i++ ) {
+            int value = rand.nextInt(4 * 65536);
+            if ( rand.nextInt(4) == 0 ) {
+                Assertions.assertEquals(ref.get(value), bm.remove(value));
+                ref.clear(value);
+            } else {
+                Assertions.assertEquals(!ref.get(value), bm.add(value));
+                ref.set(value);
+            }
+        }
+
+        Assertions.assertEquals(ref.cardinality(), bm.cardinality());
+        for ( int i = 0; i < 1000; i++ ) {
+            int value = rand.nextInt(5 * 65536);
+            Assertions.assertEquals(ref.get(value), bm.contains(value));
+            Assertions.assertEquals(ref.nextClearBit(value), bm.nextClearBit(value));
+            Assertions.assertEquals(ref.nextSetBit(value), bm.nextSetBit(value));
+            Assertions.assertEquals(ref.previousSetBit(value), bm.previousSetBit(value));
+            Assertions.assertEquals(ref.get(0, value).cardinality(), bm.rank(value));
+        }
+
+        List<Integer> values = new ArrayList<>();
+        bm.forEach((v) -> values.add(v));
+        Assertions.assertEquals(ref.stream().boxed().collect(Collectors.toList()), values);
+
+        IDBitmap copy = new IDBitmap();
+        copy.addAll(bm);
+        Assertions.assertEquals(bm.cardinality(), copy.cardinality());
+    }
+
+    @Test
+    void testSerialization() {
+        IDBitmap bm = new IDBitmap();
+        bm.add(12);
+        bm.add(999999999);
+        bm.addRange(70000, 80000);
+
+        ByteBuffer buffer = ByteBuffer.allocate(bm.getSerializedSize() + 1);
+        bm.serialize(buffer);
+        Assertions.assertEquals(1, buffer.remaining());
+        buffer.flip();
+
+        IDBitmap copy = IDBitmap.deserialize(buffer);
+        Assertions.assertEquals(bm.cardinality(), copy.cardinality());
+        Assertions.assertTrue(copy.contains(12));
+        Assertions.assertTrue(copy.contains(75000));
+        Assertions.assertTrue(copy.contains(999999999));
+        Assertions.assertFalse(copy.contains(80000));
+        Assertions.assertEquals(80000, copy.nextClearBit(70000));
+
+        // The copy must be modifiable like any other set
+        Assertions.assertTrue(copy.add(13));
+        Assertions.assertTrue(copy.remove(70000));
+
+        buffer.flip();
+        buffer.limit(buffer.limit() - 10);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IDBitmap.deserialize(buffer));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IDBloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        IDBitmap used = new IDBitmap();
+        used.addRange(1000, 11000);
+        IDBloomFilter filter = IDBloomFilter.fromBitmap(used, 0.01);
+
+        for ( int i = 1000; i < 11000; i++ ) {
+            Assertions.assertTrue(filter.mightContain(i));
+        }
+
+        int falsePositives = 0;
+        for ( int i = 100000; i < 200000; i++ ) {
+            if ( filter.mightContain(i) ) {
+                falsePositives += 1;
+            }
+        }
+        // Expected rate is 1%; allow some leeway
+        Assertions.assertTrue(falsePositives < 2000, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    void testSizing() {
+        IDBloomFilter filter = IDBloomFilter.create(1000, 0.01);
+        Assertions.assertEquals(9586, filter.getBitCount());
+        Assertions.assertEquals(7, filter.getHashCount());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IDBloomFilter.create(1000, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IDBloomFilter.create(1000, 1.5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IDBloomFilter.create(-1, 0.01));
+    }
+
+    @Test
+    void testSaveAndLoad(@TempDir Path dir) throws IOException {
+        IDBloomFilter filter = IDBloomFilter.create(100, 0.001);
+        for ( int i = 0; i < 100; i++ ) {
+            filter.add(i * 7);
+        }
+        Path file = dir.resolve("filter.bloom");
+        filter.save(file);
+
+        IDBloomFilter copy = IDBloomFilter.load(file);
+        Assertions.assertEquals(filter.getBitCount(), copy.getBitCount());
+        Assertions.assertEquals(filter.getHashCount(), copy.getHashCount());
+        for ( int i = 0; i < 1000; i++ ) {
+            Assertions.assertEquals(filter.mightContain(i), copy.mightContain(i));
+        }
+
+        Files.writeString(file, "not a filter");
+        Assertions.assertThrows(IOException.class, () -> IDBloomFilter.load(file));
+    }
+
+    @Test
+    void testTruncatedFilter() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IDBloomFilter.create(100, 0.01).write(out);
+        byte[] data = out.toByteArray();
+        ByteArrayInputStream in = new ByteArrayInputStream(data, 0, data.length - 8);
+        Assertions.assertThrows(IOException.class, () -> IDBloomFilter.read(in));
+    }
+
+    @Test
+    void testForgedFilterSize() throws IOException {
+        // A header announcing the largest possible filter, without any data
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(0x44424C4D);
+        data.writeInt(1);
+        data.writeLong(64L * Integer.MAX_VALUE / 2);
+        data.writeInt(7);
+        data.writeLong(0);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        Assertions.assertThrows(IOException.class, () -> IDBloomFilter.read(in));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IDClaimFileTest {
+
+    @Test
+    void testClaimAndReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("range.claims");
+        try ( IDClaimFile claims = IDClaimFile.open(file, 1000, 1200) ) {
+            Assertions.assertTrue(claims.claim(1000));
+            Assertions.assertFalse(claims.claim(1000));
+            Assertions.assertTrue(claims.claim(1002));
+            Assertions.assertEquals(1001, claims.claimNext(1000));
+            Assertions.assertEquals(1003, claims.claimNext(1000));
+            Assertions.assertEquals(1100, claims.claimNext(1100));
+        }
+
+        try ( IDClaimFile claims = IDClaimFile.open(file, 1000, 1200) ) {
+            Assertions.assertTrue(claims.isClaimed(1003));
+            Assertions.assertTrue(claims.isClaimed(1100));
+            Assertions.assertFalse(claims.isClaimed(1004));
+            Assertions.assertEquals(1004, claims.claimNext(0));
+        }
+    }
+
+    @Test
+    void testExhaustRange(@TempDir Path dir) throws IOException {
+        try ( IDClaimFile claims = IDClaimFile.open(dir.resolve("range.claims"), 10, 80) ) {
+            for ( int i = 10; i < 80; i++ ) {
+                Assertions.assertEquals(i, claims.claimNext(10));
+            }
+            Assertions.assertEquals(-1, claims.claimNext(10));
+        }
+    }
+
+    @Test
+    void testRejectMismatchedRange(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("range.claims");
+        IDClaimFile.open(file, 1000, 1200).close();
+        Assertions.assertThrows(IOException.class, () -> IDClaimFile.open(file, 1000, 1300));
+    }
+
+    @Test
+    void testRecoverInterruptedInitialisation(@TempDir Path dir) throws IOException {
+        // A file extended but without a magic number, as left by a crash
+        // during initialisation.
+        Path file = dir.resolve("range.claims");
+        Files.write(file, new byte[96]);
+        try ( IDClaimFile claims = IDClaimFile.open(file, 1000, 1200) ) {
+            Assertions.assertEquals(1000, claims.claimNext(1000));
+        }
+        try ( IDClaimFile claims = IDClaimFile.open(file, 1000, 1200) ) {
+            Assertions.assertEquals(1001, claims.claimNext(1000));
+        }
+    }
+
+    @Test
+    void testNeverOverwriteOtherFiles(@TempDir Path dir) throws IOException {
+        Path text = dir.resolve("notes.txt");
+        Files.write(text, "short".getBytes());
+        Assertions.assertThrows(IOException.class, () -> IDClaimFile.open(text, 1000, 1200));
+        Assertions.assertEquals("short", new String(Files.readAllBytes(text)));
+
+        // Starts with zeros, but does not have the size of a claim file.
+        Path zeros = dir.resolve("zeros.bin");
+        Files.write(zeros, new byte[200]);
+        Assertions.assertThrows(IOException.class, () -> IDClaimFile.open(zeros, 1000, 1200));
+        Assertions.assertEquals(200, Files.size(zeros));
+    }
+
+    @Test
+    void testNoDuplicatesAcrossMappings(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("range.claims");
+        int workers = 4;
+        int perWorker = 5000;
+
+        // Each worker maps the file independently, as separate processes would.
+        List<IDClaimFile> files = new ArrayList<>();
+        for ( int i = 0; i < workers; i++ ) {
+            files.add(IDClaimFile.open(file, 0, workers * perWorker));
+        }
+
+        Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<Integer>> results = new ArrayList<>();
+        for ( IDClaimFile claims : files ) {
+            results.add(executor.submit(() -> {
+                int duplicates = 0;
+                for ( int i = 0; i < perWorker; i++ ) {
+                    if ( !claimed.add(claims.claimNext(0)) ) {
+                        duplicates += 1;
+                    }
+                }
+                return duplicates;
+            }));
+        }
+        for ( Future<Integer> result : results ) {
+            Assertions.assertEquals(0, result.get());
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(workers * perWorker, claimed.size());
+        Assertions.assertEquals(-1, files.get(0).claimNext(0));
+        for ( IDClaimFile claims : files ) {
+            claims.close();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IDFormatTest {
+
+    @Test
+    void testFormatZeroPaddedIDs() {
+        IDFormat fmt = new IDFormat("https://example.org/ID_", 7);
+
+        Assertions.assertEquals("https://example.org/ID_0000000", fmt.format(0));
+        Assertions.assertEquals("https://example.org/ID_0001234", fmt.format(1234));
+        Assertions.assertEquals("https://example.org/ID_9999999", fmt.format(9999999));
+        Assertions.assertEquals("https://example.org/ID_12345678", fmt.format(12345678));
+    }
+
+    @Test
+    void testFormatIntoBuffers() throws IOException {
+        IDFormat fmt = new IDFormat("ID:", 4);
+
+        char[] buffer = new char[fmt.getMaxLength() + 2];
+        int end = fmt.format(12, buffer, 2);
+        Assertions.assertEquals(9, end);
+        Assertions.assertEquals("ID:0012", new String(buffer, 2, end - 2));
+
+        StringBuilder sb = new StringBuilder("<");
+        fmt.formatTo(345, sb);
+        Assertions.assertEquals("<ID:0345", sb.toString());
+
+        Appendable out = new StringBuilder();
+        fmt.formatTo(123456, out);
+        Assertions.assertEquals("ID:123456", out.toString());
+    }
+
+    @Test
+    void testCompileFormatString() {
+        Assertions.assertEquals("https://example.org/0001234",
+                IDFormat.fromFormatString("https://example.org/%07d").format(1234));
+        Assertions.assertEquals("ID-1234.", IDFormat.fromFormatString("ID-%d.").format(1234));
+        Assertions.assertEquals("ID-  34", IDFormat.fromFormatString("ID-%4d").format(34));
+        Assertions.assertEquals("100%_0034", IDFormat.fromFormatString("100%%_%04d").format(34));
+        Assertions.assertEquals("100%%_%04d", IDFormat.fromFormatString("100%%_%04d").getFormatString());
+
+        for ( String invalid : new String[] { "no specifier", "%s", "%07d-%07d", "%07", "%x", "trailing %" } ) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> IDFormat.fromFormatString(invalid));
+        }
+    }
+
+    @Test
+    void testFormatFromPolicy() {
+        IDPolicy policy = new IDPolicy("myont");
+        IDFormat fmt = policy.getIDFormat();
+
+        Assertions.assertEquals("http://purl.obolibrary.org/obo/MYONT_%07d", policy.getFormat());
+        Assertions.assertEquals(String.format(policy.getFormat(), 42), fmt.format(42));
+        Assertions.assertEquals("MYONT:", fmt.getShortPrefix());
+    }
+
+    @Test
+    void testParseIDs() {
+        IDFormat fmt = new IDFormat("http://purl.obolibrary.org/obo/MYONT_", "MYONT", 7);
+
+        Assertions.assertEquals(1234, fmt.parse("http://purl.obolibrary.org/obo/MYONT_0001234"));
+        Assertions.assertEquals(1234, fmt.parse("MYONT:0001234"));
+        Assertions.assertEquals(0, fmt.parse("MYONT:0000000"));
+        Assertions.assertEquals(12345678, fmt.parse("MYONT:12345678"));
+
+        Assertions.assertEquals(-1, fmt.parse("http://purl.obolibrary.org/obo/OTHER_0001234"));
+        Assertions.assertEquals(-1, fmt.parse("MYONT:123"));
+        Assertions.assertEquals(-1, fmt.parse("MYONT:01234567"));
+        Assertions.assertEquals(-1, fmt.parse("MYONT:000123a"));
+        Assertions.assertEquals(-1, fmt.parse("MYONT:99999999999"));
+        Assertions.assertEquals(-1, fmt.parse("MYONT:"));
+    }
+
+    @Test
+    void testParseEmbeddedIDs() {
+        IDFormat fmt = new IDFormat("MYONT:", 7);
+        String text = "<MYONT:0000042> and <MYONT:0000043>";
+
+        Assertions.assertEquals(42, fmt.parse(text, 1, 14));
+        Assertions.assertEquals(43, fmt.parse(text, 21, 34));
+        Assertions.assertEquals(-1, fmt.parse(text, 0, 14));
+    }
+
+    @Test
+    void testParseRoundTrip() {
+        IDFormat[] formats = { new IDFormat("ID_", 7), IDFormat.fromFormatString("ID_%d"),
+                IDFormat.fromFormatString("ID_%5d#"), IDFormat.fromFormatString("ID_%03d#") };
+        int[] values = { 0, 7, 42, 999, 1000, 123456, 98765432, Integer.MAX_VALUE };
+
+        for ( IDFormat fmt : formats ) {
+            for ( int value : values ) {
+                Assertions.assertEquals(value, fmt.parse(fmt.format(value)));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IDIndexCacheTest {
+
+    private IDFormat format = new IDFormat("http://purl.obolibrary.org/obo/EX_", 7);
+
+    @Test
+    void testCacheEntryIsReused(@TempDir Path dir) throws IOException {
+        Path source = dir.resolve("ont.obo");
+        Files.writeString(source, "[Term]\nid: EX:0000001\n\n[Term]\nid: EX:0000002\n");
+        IDIndexCache cache = new IDIndexCache(dir.resolve("cache"));
+
+        Assertions.assertFalse(cache.isUpToDate(source, format));
+        UsedIDIndex index = cache.getIndex(source, format);
+        Assertions.assertTrue(index.exists(1));
+        Assertions.assertTrue(index.exists(2));
+        Assertions.assertTrue(cache.isUpToDate(source, format));
+
+        // Touching the file does not invalidate the entry
+        Files.setLastModifiedTime(source, FileTime.fromMillis(0));
+        Assertions.assertFalse(cache.isUpToDate(source, format));
+        index = cache.getIndex(source, format);
+        Assertions.assertEquals(2, index.getBitmap().cardinality());
+        Assertions.assertTrue(cache.isUpToDate(source, format));
+
+        // A different format gets its own entry
+        IDFormat other = new IDFormat("http://purl.obolibrary.org/obo/OTHER_", 7);
+        Assertions.assertFalse(cache.isUpToDate(source, other));
+    }
+
+    @Test
+    void testModifiedFileIsRescanned(@TempDir Path dir) throws IOException {
+        Path source = dir.resolve("ont.obo");
+        Files.writeString(source, "id: EX:0000001\n");
+        IDIndexCache cache = new IDIndexCache(dir.resolve("cache"));
+        Assertions.assertEquals(1, cache.getIndex(source, format).getBitmap().cardinality());
+
+        // Same size, but different contents
+        Files.writeString(source, "id: EX:0000003\n");
+        Files.setLastModifiedTime(source, FileTime.fromMillis(0));
+        UsedIDIndex index = cache.getIndex(source, format);
+        Assertions.assertFalse(index.exists(1));
+        Assertions.assertTrue(index.exists(3));
+
+        Files.writeString(source, "id: EX:0000003\nid: EX:0000004\n");
+        index = cache.getIndex(source, format);
+        Assertions.assertTrue(index.exists(4));
+    }
+
+    @Test
+    void testInvalidEntryIsRebuilt(@TempDir Path dir) throws IOException {
+        Path source = dir.resolve("ont.obo");
+        Files.writeString(source, "id: EX:0000001\n");
+        Path cacheDir = dir.resolve("cache");
+        IDIndexCache cache = new IDIndexCache(cacheDir);
+        cache.getIndex(source, format);
+
+        try ( DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDir) ) {
+            for ( Path entry : entries ) {
+                Files.writeString(entry, "garbage");
+            }
+        }
+        Assertions.assertFalse(cache.isUpToDate(source, format));
+        Assertions.assertTrue(cache.getIndex(source, format).exists(1));
+        Assertions.assertTrue(cache.isUpToDate(source, format));
+    }
+
+    @Test
+    void testEntryFromOtherScannerVersionIsRebuilt(@TempDir Path dir) throws IOException {
+        Path source = dir.resolve("ont.obo");
+        Files.writeString(source, "id: EX:0000001\n");
+        Path cacheDir = dir.resolve("cache");
+        IDIndexCache cache = new IDIndexCache(cacheDir);
+        cache.getIndex(source, format);
+
+        try ( DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDir) ) {
+            for ( Path entry : entries ) {
+                byte[] data = Files.readAllBytes(entry);
+                ByteBuffer.wrap(data).putInt(8, IDScanner.VERSION - 1);
+                Files.write(entry, data);
+            }
+        }
+        Assertions.assertFalse(cache.isUpToDate(source, format));
+        Assertions.assertTrue(cache.getIndex(source, format).exists(1));
+        Assertions.assertTrue(cache.isUpToDate(source, format));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IDJournalTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testMissingJournalIsEmpty(@TempDir Path dir) throws IOException {
+        IDJournal journal = IDJournal.load(dir.resolve("missing.journal"));
+        Assertions.assertEquals(-1, journal.getLastIssued(format, 1000));
+    }
+
+    @Test
+    void testSaveAndReload(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("test.journal");
+        IDJournal journal = new IDJournal(file);
+        journal.record(format, 1000, 1005);
+        journal.record(format, 1000, 1002);
+        journal.record(format, 2000, 2010);
+        journal.save();
+
+        IDJournal reloaded = IDJournal.load(file);
+        Assertions.assertEquals(1005, reloaded.getLastIssued(format, 1000));
+        Assertions.assertEquals(2010, reloaded.getLastIssued(format, 2000));
+        Assertions.assertEquals(-1, reloaded.getLastIssued(new IDFormat("https://example.com/", 7), 1000));
+
+        // No temporary file should be left behind.
+        Assertions.assertEquals(1, Files.list(dir).count());
+    }
+
+    @Test
+    void testInvalidJournal(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("invalid.journal");
+        Files.write(file, "https://example.org/%07d\t1000\tnotanumber\n".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThrows(IOException.class, () -> IDJournal.load(file));
+    }
+
+    @Test
+    void testDefaultPath() {
+        Assertions.assertEquals(Paths.get("dir/myont-idranges.journal"),
+                IDJournal.getDefaultPath(Paths.get("dir/myont-idranges.owl")));
+    }
+}
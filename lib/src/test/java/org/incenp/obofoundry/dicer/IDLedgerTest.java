@@ -0,0 +1,261 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IDLedgerTest {
+
+    @Test
+    void testAppendAndReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("ids.ledger");
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            ledger.append(1, 1000);
+            ledger.append(1, 1001);
+            ledger.append(2, 5000);
+            Assertions.assertTrue(ledger.wasIssued(1, 1000));
+            Assertions.assertFalse(ledger.wasIssued(2, 1000));
+        }
+
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            Assertions.assertTrue(ledger.wasIssued(1, 1001));
+            Assertions.assertTrue(ledger.wasIssued(2, 5000));
+            Assertions.assertEquals(2, ledger.countIssued(1));
+            Assertions.assertEquals(0, ledger.countIssued(3));
+            ledger.append(1, 1002);
+        }
+
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            Assertions.assertEquals(3, ledger.countIssued(1));
+        }
+    }
+
+    @Test
+    void testManyRecords(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("ids.ledger");
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            for ( int i = 0; i < 100000; i++ ) {
+                ledger.append(1, i);
+            }
+        }
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            Assertions.assertEquals(100000, ledger.countIssued(1));
+        }
+    }
+
+    @Test
+    void testDiscardPartialRecord(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("ids.ledger");
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            ledger.append(1, 1000);
+        }
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND) ) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0 }));
+        }
+
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            Assertions.assertEquals(1, ledger.countIssued(1));
+            ledger.append(1, 1001);
+        }
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            Assertions.assertTrue(ledger.wasIssued(1, 1001));
+        }
+    }
+
+    @Test
+    void testRejectInvalidFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("not-a-ledger");
+        Files.write(file, "Hello, world!".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThrows(IOException.class, () -> IDLedger.open(file));
+    }
+
+    @Test
+    void testLedgerAsChecker(@TempDir Path dir) throws IOException {
+        IDFormat format = new IDFormat("https://example.org/", 7);
+        try ( IDLedger ledger = IDLedger.open(dir.resolve("ids.ledger")) ) {
+            ledger.append(1, 1000);
+            IExistenceChecker checker = ledger.getChecker(1, format);
+            Assertions.assertTrue(checker.exists("https://example.org/0001000"));
+            Assertions.assertFalse(checker.exists("https://example.org/0001001"));
+            Assertions.assertTrue(((IIntExistenceChecker) checker).exists(1000));
+        }
+    }
+
+    @Test
+    void testRetryFailedCommit(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("ids.ledger");
+        FailingChannel channel = new FailingChannel(
+                FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try ( IDLedger ledger = IDLedger.open(channel) ) {
+            ledger.append(1, 1000);
+            ledger.append(1, 1001);
+
+            // Write failing in the middle of the second record
+            channel.writeBudget = 12;
+            Assertions.assertThrows(IOException.class, () -> ledger.commit());
+            channel.writeBudget = -1;
+            ledger.append(1, 1002);
+
+            // Force failing after all records have been written
+            channel.failForce = true;
+            Assertions.assertThrows(IOException.class, () -> ledger.commit());
+            channel.failForce = false;
+            int forced = channel.forced;
+            ledger.commit();
+            Assertions.assertEquals(forced + 1, channel.forced);
+        }
+
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            Assertions.assertEquals(3, ledger.countIssued(1));
+            Assertions.assertTrue(ledger.wasIssued(1, 1001));
+            Assertions.assertTrue(ledger.wasIssued(1, 1002));
+        }
+        Assertions.assertEquals(8 + 3 * 8, Files.size(file));
+    }
+
+    /*
+     * A channel that can be made to fail when writing or synchronising.
+     */
+    private static class FailingChannel extends FileChannel {
+        private FileChannel inner;
+        int writeBudget = -1;
+        boolean failForce = false;
+        int forced = 0;
+
+        FailingChannel(FileChannel inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if ( writeBudget == -1 ) {
+                return inner.write(src);
+            }
+            if ( src.remaining() > writeBudget ) {
+                ByteBuffer partial = src.duplicate();
+                partial.limit(partial.position() + writeBudget);
+                src.position(src.position() + inner.write(partial));
+                writeBudget = 0;
+                throw new IOException("Simulated write failure");
+            }
+            writeBudget -= src.remaining();
+            return inner.write(src);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if ( failForce ) {
+                throw new IOException("Simulated force failure");
+            }
+            forced += 1;
+            inner.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return inner.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return inner.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return inner.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return inner.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            inner.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return inner.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            inner.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return inner.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return inner.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return inner.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return inner.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return inner.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return inner.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return inner.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            inner.close();
+        }
+    }
+}
@@ -251,6 +251,43 @@ public class IDPolicyTest {
         }
     }
 
+    @Test
+    void testAllRangesForName() {
+        IDPolicy policy = getTestPolicy();
+        try {
+            policy.addRange(4, "user1", null, 40000, 50000);
+        } catch ( InvalidIDPolicyException e ) {
+            Assertions.fail(e);
+        }
+
+        List<IDRange> ranges = policy.getRanges("user1");
+        Assertions.assertEquals(2, ranges.size());
+        Assertions.assertEquals(1, ranges.get(0).getID());
+        Assertions.assertEquals(4, ranges.get(1).getID());
+        Assertions.assertTrue(policy.getRanges("nobody").isEmpty());
+    }
+
+    @Test
+    void testExtendRange() {
+        IDPolicy policy = getTestPolicy();
+        try {
+            policy.addRange(4, "user4", null, 40000, 50000);
+        } catch ( InvalidIDPolicyException e ) {
+            Assertions.fail(e);
+        }
+
+        IDRange range = policy.findRangeByID(3).get();
+        try {
+            policy.extendRange(range, 10000);
+        } catch ( IDRangeNotFoundException e ) {
+            Assertions.fail(e);
+        }
+        Assertions.assertEquals(40000, range.getUpperBound());
+        Assertions.assertThrows(IDRangeNotFoundException.class, () -> policy.extendRange(range, 1));
+        Assertions.assertThrows(IDRangeNotFoundException.class,
+                () -> policy.extendRange(policy.findRangeByID(4).get(), policy.getMaxUpperBound()));
+    }
+
     @Test
     void testUnallocatedRanges() {
         IDPolicy policy = new IDPolicy("myont");
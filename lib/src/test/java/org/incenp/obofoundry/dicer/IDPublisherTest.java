@@ -0,0 +1,126 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IDPublisherTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testPublishRequestedIDs() throws InterruptedException {
+        IDPublisher publisher = new IDPublisher(new SequentialIDGenerator(format, 1000, 2000, (id) -> false));
+        TestSubscriber subscriber = new TestSubscriber(3);
+        publisher.subscribe(subscriber);
+
+        Assertions.assertTrue(subscriber.received.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of(format.format(1000), format.format(1001), format.format(1002)),
+                subscriber.ids);
+        Assertions.assertNull(subscriber.error);
+        Assertions.assertNotEquals(Thread.currentThread(), subscriber.thread);
+
+        // No more IDs than requested.
+        Thread.sleep(50);
+        Assertions.assertEquals(3, subscriber.ids.size());
+    }
+
+    @Test
+    void testSignalExhaustedRange() throws InterruptedException {
+        IDPublisher publisher = new IDPublisher(new SequentialIDGenerator(format, 1000, 1002, (id) -> false));
+        TestSubscriber subscriber = new TestSubscriber(5);
+        publisher.subscribe(subscriber);
+
+        Assertions.assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, subscriber.ids.size());
+        Assertions.assertTrue(subscriber.error instanceof IDNotFoundException);
+    }
+
+    @Test
+    void testSignalInvalidRequest() throws InterruptedException {
+        IDPublisher publisher = new IDPublisher(new SequentialIDGenerator(format, 1000, 2000, (id) -> false));
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(-1);
+
+        Assertions.assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void testUnboundedDemand() throws InterruptedException {
+        IDPublisher publisher = new IDPublisher(new SequentialIDGenerator(format, 0, 1000, (id) -> false));
+        TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        Assertions.assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1000, subscriber.ids.size());
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<String> {
+
+        private long demand;
+        private Flow.Subscription subscription;
+        private List<String> ids = new ArrayList<>();
+        private volatile Throwable error;
+        private volatile Thread thread;
+        private CountDownLatch received;
+        private CountDownLatch terminated = new CountDownLatch(1);
+
+        TestSubscriber(long demand) {
+            this.demand = demand;
+            received = new CountDownLatch((int) Math.min(demand, 1000));
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if ( demand > 0 ) {
+                subscription.request(demand);
+            }
+        }
+
+        @Override
+        public void onNext(String item) {
+            synchronized ( ids ) {
+                ids.add(item);
+            }
+            thread = Thread.currentThread();
+            received.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+    }
+}
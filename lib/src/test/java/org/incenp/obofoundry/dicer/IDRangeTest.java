@@ -0,0 +1,62 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IDRangeTest {
+
+    @Test
+    void testFreeIDs() {
+        IDRange range = getTestRange();
+        List<String> ids = range.freeIDs((id) -> id.endsWith("0")).limit(3).collect(Collectors.toList());
+        Assertions.assertEquals(List.of("http://purl.obolibrary.org/obo/MYONT_0001001",
+                "http://purl.obolibrary.org/obo/MYONT_0001002", "http://purl.obolibrary.org/obo/MYONT_0001003"),
+                ids);
+    }
+
+    @Test
+    void testFreeNumbersInParallel() {
+        IDRange range = getTestRange();
+        UsedIDIndex index = new UsedIDIndex(range.getIDFormat());
+        index.getBitmap().addRange(1000, 1500);
+
+        Assertions.assertEquals(500, range.freeNumbers(index).parallel().count());
+        Assertions.assertEquals(1500, range.freeNumbers(index).parallel().min().getAsInt());
+
+        List<Integer> some = range.freeNumbers(index).parallel().unordered().limit(100).boxed()
+                .collect(Collectors.toList());
+        Assertions.assertEquals(100, some.size());
+        Assertions.assertTrue(some.stream().allMatch((n) -> n >= 1500 && n < 2000));
+    }
+
+    private IDRange getTestRange() {
+        IDPolicy policy = new IDPolicy("myont");
+        try {
+            policy.addRange(1, "user1", null, 1000, 2000);
+        } catch ( InvalidIDPolicyException e ) {
+            Assertions.fail(e);
+        }
+        return policy.getRangeFor("user1");
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IDScannerTest {
+
+    private IDFormat format = new IDFormat("http://purl.obolibrary.org/obo/EX_", 7);
+
+    @Test
+    void testScanSyntaxes() throws IOException {
+        String text = "<owl:Class rdf:about=\"http://purl.obolibrary.org/obo/EX_0000001\"/>\n"
+                + "<http://purl.obolibrary.org/obo/EX_0000002> rdf:type owl:Class .\n"
+                + "obo:EX_0000003 rdfs:subClassOf obo:EX_0000004 .\n"
+                + "Declaration(Class(obo:EX_0000005))\n"
+                + "[Term]\nid: EX:0000006\nis_a: EX:0000007 ! parent\n"
+                + "{\"id\": \"http://purl.obolibrary.org/obo/EX_0000008\"}\n";
+        Assertions.assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), scan(new IDScanner(format), text));
+    }
+
+    @Test
+    void testRejectNonMatchingIDs() throws IOException {
+        String text = "obo:NEX_0000001 obo:EX_000002 obo:EX_0000003a obo:EX_00000004 EX:99999999999 "
+                + "obo:OTHER_0000005 EX_0000006";
+        Assertions.assertEquals(List.of(6), scan(new IDScanner(format), text));
+    }
+
+    @Test
+    void testShortPrefix() throws IOException {
+        IDFormat curieFormat = new IDFormat("https://example.org/ids#", "myont", 4);
+        String text = "<https://example.org/ids#1234> myont:2345 ids#3456";
+        Assertions.assertEquals(List.of(1234, 2345), scan(new IDScanner(curieFormat), text));
+    }
+
+    @Test
+    void testDeclaredPrefixNames() throws IOException {
+        IDFormat slashFormat = new IDFormat("https://example.org/", 7);
+        String turtle = "@prefix ex: <https://example.org/> .\n"
+                + "PREFIX ex2: <https://example.org/>\n"
+                + "<https://example.org/0000001> a owl:Class .\n"
+                + "ex:0000002 rdfs:subClassOf ex2:0000003 .\n"
+                + "other:0000004 a owl:Class .\n";
+        Assertions.assertEquals(List.of(1, 2, 3), scan(new IDScanner(slashFormat), turtle));
+
+        String manchester = "Prefix: : <https://example.org/>\nClass: :0000001\n";
+        Assertions.assertEquals(List.of(1), scan(new IDScanner(slashFormat), manchester));
+
+        String functional = "Prefix(ex:=<https://example.org/>)\nDeclaration(Class(ex:0000001))\n";
+        Assertions.assertEquals(List.of(1), scan(new IDScanner(slashFormat), functional));
+
+        String rdfxml = "<rdf:RDF xmlns:ex=\"https://example.org/\">\n<ex:0000001/>\n"
+                + "<owl:Class rdf:about=\"https://example.org/0000002\"/>\n";
+        Assertions.assertEquals(List.of(1, 2), scan(new IDScanner(slashFormat), rdfxml));
+
+        // Names must be declared before they are used, and are not
+        // remembered from one stream to the next.
+        IDScanner scanner = new IDScanner(slashFormat);
+        Assertions.assertEquals(List.of(), scan(scanner, "ex:0000001\n@prefix ex: <https://example.org/> ."));
+        Assertions.assertEquals(List.of(), scan(scanner, "ex:0000001"));
+    }
+
+    @Test
+    void testPrefixNamesBoundToFullPrefix() throws IOException {
+        IDFormat dicerFormat = new IDFormat("https://example.org/DICER_", 7);
+        String turtle = "@prefix dicer: <https://example.org/DICER_> .\n"
+                + "dicer:0001001 a owl:Class .\n"
+                + "<https://example.org/DICER_0001002> a owl:Class .\n";
+        Assertions.assertEquals(List.of(1001, 1002), scan(new IDScanner(dicerFormat), turtle));
+
+        String jsonld = "{\"@context\": {\"dicer\": \"https://example.org/DICER_\"},\n"
+                + " \"@id\": \"dicer:0001003\"}\n";
+        Assertions.assertEquals(List.of(1003), scan(new IDScanner(dicerFormat), jsonld));
+    }
+
+    @Test
+    void testDeclaredPrefixNamesAcrossBufferBoundaries() throws IOException {
+        IDFormat slashFormat = new IDFormat("https://example.org/", 7);
+        StringBuilder sb = new StringBuilder();
+        sb.append("@prefix ex: <https://example.org/> .\n");
+        List<Integer> expected = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            sb.append(" ex:");
+            sb.append(String.format("%07d", i));
+            expected.add(i);
+        }
+        Assertions.assertEquals(expected, scan(new IDScanner(slashFormat, 16), sb.toString()));
+    }
+
+    @Test
+    void testIDsAcrossBufferBoundaries() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        List<Integer> expected = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            sb.append(" obo:EX_");
+            sb.append(String.format("%07d", i));
+            expected.add(i);
+        }
+        Assertions.assertEquals(expected, scan(new IDScanner(format, 16), sb.toString()));
+    }
+
+    private List<Integer> scan(IDScanner scanner, String text) throws IOException {
+        List<Integer> found = new ArrayList<>();
+        scanner.scan(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), found::add);
+        return found;
+    }
+}
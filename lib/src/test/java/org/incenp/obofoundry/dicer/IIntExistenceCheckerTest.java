@@ -0,0 +1,93 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IIntExistenceCheckerTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testFromStringChecker() {
+        IIntExistenceChecker checker = IIntExistenceChecker.fromChecker((id) -> id.equals(format.format(1001)),
+                format);
+        Assertions.assertTrue(checker.exists(1001));
+        Assertions.assertFalse(checker.exists(1000));
+    }
+
+    @Test
+    void testFromNumericAwareChecker() {
+        UsedIDIndex index = new UsedIDIndex(format);
+        Assertions.assertSame(index, IIntExistenceChecker.fromChecker(index, format));
+    }
+
+    @Test
+    void testCheckerForAnotherFormat() {
+        IDFormat other = new IDFormat("https://example.org/OTHER_", 7);
+        UsedIDIndex index = new UsedIDIndex(other);
+        index.add(other.format(1001));
+
+        // The index knows about OTHER_0001001, not about 0001001
+        IIntExistenceChecker checker = IIntExistenceChecker.fromChecker(index, format);
+        Assertions.assertNotSame(index, checker);
+        Assertions.assertFalse(checker.exists(1001));
+        Assertions.assertSame(index,
+                IIntExistenceChecker.fromChecker(index, new IDFormat("https://example.org/OTHER_", 7)));
+
+        TieredExistenceChecker tiered = new TieredExistenceChecker(format, 0);
+        tiered.addTier("other", index);
+        Assertions.assertFalse(tiered.exists(1001));
+        Assertions.assertSame(tiered, IIntExistenceChecker.fromChecker(tiered, format));
+        Assertions.assertNotSame(tiered, IIntExistenceChecker.fromChecker(tiered, other));
+    }
+
+    @Test
+    void testToStringChecker() {
+        IExistenceChecker checker = IIntExistenceChecker.toChecker((n) -> n == 1001, format);
+        Assertions.assertTrue(checker.exists("https://example.org/0001001"));
+        Assertions.assertFalse(checker.exists("https://example.org/0001000"));
+        Assertions.assertFalse(checker.exists("https://example.com/0001001"));
+        Assertions.assertTrue(checker instanceof IIntExistenceChecker);
+    }
+
+    @Test
+    void testGeneratorUsesNumericChecks() throws IDNotFoundException {
+        SequentialIDGenerator gen = new SequentialIDGenerator(format, 1000, 2000, new NumericOnlyChecker());
+        Assertions.assertEquals(1005, gen.nextNumber());
+        Assertions.assertEquals(List.of(format.format(1006), format.format(1007)), gen.nextIDs(2));
+    }
+
+    private static class NumericOnlyChecker implements IExistenceChecker, IIntExistenceChecker {
+
+        @Override
+        public boolean exists(int n) {
+            return n < 1005;
+        }
+
+        @Override
+        public boolean exists(String id) {
+            Assertions.fail("Unexpected string-based check");
+            return false;
+        }
+    }
+}
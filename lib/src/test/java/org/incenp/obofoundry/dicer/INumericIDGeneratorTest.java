@@ -0,0 +1,51 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class INumericIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testToGenerator() throws IDNotFoundException {
+        int[] counter = { 1000 };
+        IAutoIDGenerator gen = INumericIDGenerator.toGenerator(() -> counter[0]++, format);
+        Assertions.assertEquals("https://example.org/0001000", gen.nextID());
+        Assertions.assertEquals("https://example.org/0001001", gen.nextID());
+    }
+
+    @Test
+    void testFromGenerator() throws IDNotFoundException {
+        INumericIDGenerator gen = INumericIDGenerator.fromGenerator(() -> "https://example.org/0001234", format);
+        Assertions.assertEquals(1234, gen.nextNumber());
+
+        INumericIDGenerator invalid = INumericIDGenerator.fromGenerator(() -> "https://example.com/0001234",
+                format);
+        Assertions.assertThrows(IDNotFoundException.class, () -> invalid.nextNumber());
+    }
+
+    @Test
+    void testFromNumericGenerator() {
+        SequentialIDGenerator gen = new SequentialIDGenerator(format, 1000, 2000, (id) -> false);
+        Assertions.assertSame(gen, INumericIDGenerator.fromGenerator(gen, format));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.formats.OBODocumentFormat;
+import org.semanticweb.owlapi.formats.TurtleDocumentFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+public class ImportsClosureLoaderTest {
+
+    private IDFormat format = new IDFormat("https://example.org/EX_", 7);
+
+    @Test
+    void testLoadImportsClosure(@TempDir Path dir) throws IOException {
+        writeOntology(dir, "root", 1, "a", "b");
+        writeOntology(dir, "a", 2, "c");
+        writeOntology(dir, "b", 3, "c");
+        writeOntology(dir, "c", 4);
+        ImportsClosureLoader loader = new ImportsClosureLoader(getMapper(dir));
+
+        UsedIDIndex index = loader.index(format, dir.resolve("root.ttl"), Imports.INCLUDED, false);
+        Assertions.assertEquals(4, index.getBitmap().cardinality());
+        for ( int i = 1; i <= 4; i++ ) {
+            Assertions.assertTrue(index.exists(i));
+        }
+
+        index = loader.index(format, dir.resolve("root.ttl"), Imports.EXCLUDED, false);
+        Assertions.assertEquals(1, index.getBitmap().cardinality());
+        Assertions.assertTrue(index.exists(1));
+    }
+
+    @Test
+    void testMissingImport(@TempDir Path dir) throws IOException {
+        writeOntology(dir, "root", 1, "a");
+        ImportsClosureLoader loader = new ImportsClosureLoader(getMapper(dir));
+        Assertions.assertThrows(IOException.class,
+                () -> loader.index(format, dir.resolve("root.ttl"), Imports.EXCLUDED, false));
+    }
+
+    @Test
+    void testFormatHints() {
+        Assertions.assertTrue(ImportsClosureLoader.getFormatHint("file.ttl") instanceof TurtleDocumentFormat);
+        Assertions.assertTrue(
+                ImportsClosureLoader.getFormatHint("http://example.org/file.OBO") instanceof OBODocumentFormat);
+        Assertions.assertNull(ImportsClosureLoader.getFormatHint("file.owl"));
+        Assertions.assertNull(ImportsClosureLoader.getFormatHint("http://example.org/v1.0/file"));
+    }
+
+    private void writeOntology(Path dir, String name, int id, String... imports) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+        sb.append("@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> .\n");
+        sb.append(String.format("<https://example.org/%s.owl> rdf:type owl:Ontology", name));
+        for ( String imported : imports ) {
+            sb.append(String.format(" ; owl:imports <https://example.org/%s.owl>", imported));
+        }
+        sb.append(" .\n");
+        sb.append(String.format("<https://example.org/EX_%07d> rdf:type owl:Class .\n", id));
+        Files.writeString(dir.resolve(name + ".ttl"), sb.toString());
+    }
+
+    private OWLOntologyIRIMapper getMapper(Path dir) {
+        return (iri) -> {
+            String name = iri.toString().replace("https://example.org/", "").replace(".owl", ".ttl");
+            return IRI.create(dir.resolve(name).toUri());
+        };
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IndexedIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testGenerateIDsAroundUsedIDs() {
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.getBitmap().addRange(1000, 1100);
+        index.add(1105);
+
+        IAutoIDGenerator gen = new IndexedIDGenerator(format, 1000, 2000, index, false);
+
+        try {
+            for ( int i = 0; i < 10; i++ ) {
+                int expected = i < 5 ? i : i + 1;
+                Assertions.assertEquals(format.format(1100 + expected), gen.nextID());
+            }
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        // Generated IDs are recorded in the index.
+        Assertions.assertTrue(index.exists("https://example.org/0001100"));
+    }
+
+    @Test
+    void testResumeAfterHighestUsedID() {
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.add(1010);
+        index.add(1500);
+        index.add(2500);
+
+        IAutoIDGenerator gen = new IndexedIDGenerator(format, 1000, 2000, index, true);
+
+        try {
+            List<String> ids = gen.nextIDs(3);
+            Assertions.assertEquals(List.of(format.format(1501), format.format(1502), format.format(1503)), ids);
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    void testInitWithIDRange() {
+        IDPolicy policy = new IDPolicy("myont");
+        IDRange rng = null;
+        try {
+            rng = policy.addRange("user1", null, 1000);
+        } catch ( IDRangeNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        HashSet<String> usedIDs = new HashSet<>();
+        usedIDs.add("http://purl.obolibrary.org/obo/MYONT_0000000");
+        usedIDs.add("http://purl.obolibrary.org/obo/MYONT_0000002");
+        UsedIDIndex index = UsedIDIndex.fromChecker(rng, (id) -> usedIDs.contains(id));
+        Assertions.assertEquals(2, index.countUsed(0, 1000));
+
+        IAutoIDGenerator gen = new IndexedIDGenerator(rng, index);
+
+        try {
+            Assertions.assertEquals("http://purl.obolibrary.org/obo/MYONT_0000001", gen.nextID());
+            Assertions.assertEquals("http://purl.obolibrary.org/obo/MYONT_0000003", gen.nextID());
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    void testFailUponOutOfIDSpace() {
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.add(1002);
+        IAutoIDGenerator gen = new IndexedIDGenerator(format, 1000, 1005, index, false);
+
+        try {
+            Assertions.assertEquals(4, gen.nextIDs(4).size());
+            gen.nextID();
+            Assertions.fail("Expected IDNotFoundException not thrown");
+        } catch ( IDNotFoundException e ) {
+            Assertions.assertEquals("No available ID in range", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournaledIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testResumeFromJournal(@TempDir Path dir) throws IOException, IDNotFoundException {
+        Path file = dir.resolve("test.journal");
+        IAutoIDGenerator gen = new JournaledIDGenerator(format, 1000, 2000, (id) -> false, IDJournal.load(file));
+        Assertions.assertEquals(format.format(1000), gen.nextID());
+        Assertions.assertEquals(List.of(format.format(1001), format.format(1002)), gen.nextIDs(2));
+
+        // A new generator must not re-issue, nor even check, the IDs already
+        // issued by the first one.
+        IAutoIDGenerator resumed = new JournaledIDGenerator(format, 1000, 2000, (id) -> {
+            Assertions.assertTrue(format.parse(id) > 1002);
+            return false;
+        }, IDJournal.load(file));
+        Assertions.assertEquals(format.format(1003), resumed.nextID());
+    }
+
+    @Test
+    void testExhaustedRange(@TempDir Path dir) throws IOException {
+        IDJournal journal = new IDJournal(dir.resolve("test.journal"));
+        journal.record(format, 1000, 1999);
+
+        IAutoIDGenerator gen = new JournaledIDGenerator(format, 1000, 2000, (id) -> false, journal);
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextID());
+    }
+
+    @Test
+    void testEmptyBlockFromExhaustedRange(@TempDir Path dir) throws IOException, IDNotFoundException {
+        IDJournal journal = new IDJournal(dir.resolve("test.journal"));
+        journal.record(format, 1000, 1999);
+
+        IAutoIDGenerator gen = new JournaledIDGenerator(format, 1000, 2000, (id) -> false, journal);
+        Assertions.assertTrue(gen.nextIDs(0).isEmpty());
+    }
+
+    @Test
+    void testRollbackUponSaveFailure(@TempDir Path dir) throws IOException {
+        // The journal cannot be written in a directory that does not exist.
+        IDJournal journal = new IDJournal(dir.resolve("missing").resolve("test.journal"));
+        journal.record(format, 1000, 1010);
+
+        IAutoIDGenerator gen = new JournaledIDGenerator(format, 1000, 2000, (id) -> false, journal);
+        Assertions.assertThrows(UncheckedIOException.class, () -> gen.nextID());
+        Assertions.assertEquals(1010, journal.getLastIssued(format, 1000));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LedgerIDGeneratorTest {
+
+    @Test
+    void testNeverReissueIDs(@TempDir Path dir) throws IOException, IDNotFoundException {
+        IDPolicy policy = new IDPolicy("myont");
+        IDRange range = null;
+        try {
+            range = policy.addRange("user1", null, 1000);
+        } catch ( IDRangeNotFoundException e ) {
+            Assertions.fail(e);
+        }
+        IDFormat format = range.getIDFormat();
+        Path file = dir.resolve("ids.ledger");
+
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            IAutoIDGenerator gen = new LedgerIDGenerator(range, (id) -> false, ledger);
+            Assertions.assertEquals(format.format(0), gen.nextID());
+            Assertions.assertEquals(List.of(format.format(1), format.format(2)), gen.nextIDs(2));
+        }
+
+        // The IDs above were never used in the ontology, but must not be issued
+        // again.
+        try ( IDLedger ledger = IDLedger.open(file) ) {
+            IAutoIDGenerator gen = new LedgerIDGenerator(range, (id) -> id.equals(format.format(3)), ledger);
+            Assertions.assertEquals(format.format(4), gen.nextID());
+        }
+    }
+
+    @Test
+    void testLedgerFailureIsNotExhaustion(@TempDir Path dir) throws IOException {
+        IDPolicy policy = new IDPolicy("myont");
+        IDRange range = null;
+        try {
+            range = policy.addRange("user1", null, 1000);
+        } catch ( IDRangeNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        IDLedger ledger = IDLedger.open(dir.resolve("ids.ledger"));
+        IAutoIDGenerator gen = new LedgerIDGenerator(range, (id) -> false, ledger);
+        ledger.close();
+        Assertions.assertThrows(UncheckedIOException.class, () -> gen.nextID());
+        Assertions.assertThrows(UncheckedIOException.class, () -> gen.nextIDs(2));
+    }
+}
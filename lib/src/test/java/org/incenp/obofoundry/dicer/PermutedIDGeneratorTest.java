@@ -0,0 +1,136 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PermutedIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testGenerateEveryIDExactlyOnce() {
+        HashSet<String> usedIDs = new HashSet<>();
+        for ( int i = 1000; i < 1100; i++ ) {
+            usedIDs.add(format.format(i));
+        }
+
+        IAutoIDGenerator gen = new PermutedIDGenerator(format, 1000, 1777, (id) -> usedIDs.contains(id), 42);
+
+        HashSet<String> generated = new HashSet<>();
+        try {
+            for ( int i = 0; i < 677; i++ ) {
+                String id = gen.nextID();
+                int n = format.parse(id);
+                Assertions.assertTrue(n >= 1100 && n < 1777);
+                Assertions.assertTrue(generated.add(id));
+            }
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        try {
+            gen.nextID();
+            Assertions.fail("Expected IDNotFoundException not thrown");
+        } catch ( IDNotFoundException e ) {
+            Assertions.assertEquals("No available ID in range", e.getMessage());
+        }
+    }
+
+    @Test
+    void testDeterministicForAGivenKey() {
+        try {
+            List<String> first = new PermutedIDGenerator(format, 0, 100000, (id) -> false, 1234).nextIDs(50);
+            List<String> second = new PermutedIDGenerator(format, 0, 100000, (id) -> false, 1234).nextIDs(50);
+            List<String> third = new PermutedIDGenerator(format, 0, 100000, (id) -> false, 4321).nextIDs(50);
+
+            Assertions.assertEquals(first, second);
+            Assertions.assertNotEquals(first, third);
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    void testIDsAreScatteredAcrossRange() {
+        IAutoIDGenerator gen = new PermutedIDGenerator(format, 0, 100000, (id) -> false, 99);
+
+        int lowerHalf = 0;
+        try {
+            for ( String id : gen.nextIDs(1000) ) {
+                if ( format.parse(id) < 50000 ) {
+                    lowerHalf += 1;
+                }
+            }
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+        Assertions.assertTrue(lowerHalf > 400 && lowerHalf < 600);
+    }
+
+    @Test
+    void testFailedBlockLeavesGeneratorUntouched() {
+        IAutoIDGenerator gen = new PermutedIDGenerator(format, 1000, 1010, (id) -> id.equals(format.format(1003)),
+                42);
+
+        // More IDs than the size of the range
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextIDs(11));
+        // More IDs than available after going through the range
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextIDs(10));
+
+        try {
+            HashSet<String> generated = new HashSet<>();
+            generated.add(gen.nextID());
+            generated.addAll(gen.nextIDs(8));
+            Assertions.assertEquals(9, generated.size());
+            Assertions.assertFalse(generated.contains(format.format(1003)));
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    void testInitWithIDRange() {
+        IDPolicy policy = new IDPolicy("myont");
+        IDRange rng = null;
+        try {
+            policy.addRange("user1", null, 1000);
+            rng = policy.addRange("user2", null, 1000);
+        } catch ( IDRangeNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        PermutedIDGenerator gen = new PermutedIDGenerator(rng, (id) -> false);
+        PermutedIDGenerator replay = new PermutedIDGenerator(rng, (id) -> false, gen.getKey());
+
+        try {
+            for ( int i = 0; i < 10; i++ ) {
+                String id = gen.nextID();
+                Assertions.assertTrue(id.startsWith("http://purl.obolibrary.org/obo/MYONT_0001"));
+                Assertions.assertEquals(id, replay.nextID());
+            }
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PrefetchingIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testPrefetchedIDsAreIssuedInOrder() throws IDNotFoundException {
+        IAutoIDGenerator inner = new SequentialIDGenerator(format, 1000, 2000, (id) -> {
+            try {
+                Thread.sleep(1);
+            } catch ( InterruptedException e ) {
+            }
+            return format.parse(id) % 3 == 0;
+        });
+
+        try ( PrefetchingIDGenerator gen = new PrefetchingIDGenerator(inner, 10, 3) ) {
+            int expected = 1000;
+            for ( int i = 0; i < 50; i++ ) {
+                if ( expected % 3 == 0 ) {
+                    expected += 1;
+                }
+                Assertions.assertEquals(format.format(expected++), gen.nextID());
+            }
+        }
+    }
+
+    @Test
+    void testExhaustedRange() throws IDNotFoundException {
+        IAutoIDGenerator inner = new SequentialIDGenerator(format, 1000, 1005, (id) -> false);
+        try ( PrefetchingIDGenerator gen = new PrefetchingIDGenerator(inner, 3, 1) ) {
+            for ( int i = 0; i < 5; i++ ) {
+                Assertions.assertEquals(format.format(1000 + i), gen.nextID());
+            }
+            Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextID());
+        }
+    }
+
+    @Test
+    void testRuntimeExceptionsAreRethrown() throws IDNotFoundException {
+        UncheckedIOException error = new UncheckedIOException(new IOException("Simulated failure"));
+        AtomicInteger calls = new AtomicInteger();
+        IAutoIDGenerator inner = new SequentialIDGenerator(format, 1000, 2000, (id) -> {
+            if ( calls.incrementAndGet() == 3 ) {
+                throw error;
+            }
+            return false;
+        });
+
+        try ( PrefetchingIDGenerator gen = new PrefetchingIDGenerator(inner, 10, 3) ) {
+            Assertions.assertEquals(format.format(1000), gen.nextID());
+            Assertions.assertEquals(format.format(1001), gen.nextID());
+            Assertions.assertSame(error, Assertions.assertThrows(UncheckedIOException.class, () -> gen.nextID()));
+
+            // The failure is not permanent
+            Assertions.assertEquals(format.format(1003), gen.nextID());
+        }
+    }
+
+    @Test
+    void testClosedGenerator() {
+        IAutoIDGenerator inner = new SequentialIDGenerator(format, 1000, 2000, (id) -> false);
+        PrefetchingIDGenerator gen = new PrefetchingIDGenerator(inner);
+        gen.close();
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextID());
+    }
+
+    @Test
+    void testInvalidParameters() {
+        IAutoIDGenerator inner = new SequentialIDGenerator(format, 1000, 2000, (id) -> false);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PrefetchingIDGenerator(inner, 10, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PrefetchingIDGenerator(inner, 0, 0));
+    }
+}
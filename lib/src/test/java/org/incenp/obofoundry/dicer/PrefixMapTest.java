@@ -0,0 +1,105 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PrefixMapTest {
+
+    @Test
+    void testContractAndExpand() {
+        PrefixMap map = new PrefixMap();
+        map.add("GO", "http://purl.obolibrary.org/obo/GO_");
+        map.add("obo", "http://purl.obolibrary.org/obo/");
+        map.add("GOALIAS", "http://purl.obolibrary.org/obo/GO_");
+
+        Assertions.assertEquals("GO:0000001", map.contract("http://purl.obolibrary.org/obo/GO_0000001"));
+        Assertions.assertEquals("obo:CL_0000001", map.contract("http://purl.obolibrary.org/obo/CL_0000001"));
+        Assertions.assertNull(map.contract("https://example.org/0000001"));
+        Assertions.assertNull(map.contract("http://purl.obolibrary.org/"));
+
+        Assertions.assertEquals("http://purl.obolibrary.org/obo/GO_0000001", map.expand("GO:0000001"));
+        Assertions.assertEquals("http://purl.obolibrary.org/obo/GO_0000001", map.expand("GOALIAS:0000001"));
+        Assertions.assertNull(map.expand("G:0000001"));
+        Assertions.assertNull(map.expand("GO_0000001"));
+        Assertions.assertNull(map.expand("CL:0000001"));
+    }
+
+    @Test
+    void testDuplicatePrefixName() {
+        PrefixMap map = new PrefixMap();
+        Assertions.assertTrue(map.add("GO", "http://purl.obolibrary.org/obo/GO_"));
+        Assertions.assertFalse(map.add("GO", "https://example.org/GO_"));
+        Assertions.assertEquals(1, map.size());
+        Assertions.assertEquals("http://purl.obolibrary.org/obo/GO_1", map.expand("GO:1"));
+    }
+
+    @Test
+    void testReadTextFile() throws IOException {
+        PrefixMap map = PrefixMap.read(new StringReader(
+                "prefix\turi_prefix\n# comment\nGO\thttp://purl.obolibrary.org/obo/GO_\nCL http://purl.obolibrary.org/obo/CL_\n"));
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals("CL:0000001", map.contract("http://purl.obolibrary.org/obo/CL_0000001"));
+    }
+
+    @Test
+    void testReadJSONLDContext() throws IOException {
+        PrefixMap map = PrefixMap.read(new StringReader("  {\"@context\": {\"@base\": \"http://example.org/\","
+                + "\"GO\": \"http://purl.obolibrary.org/obo/GO_\", "
+                + "\"CL\": {\"@id\": \"http://purl.obolibrary.org/obo/CL_\", \"@prefix\": true},"
+                + "\"list\": [1, 2, {\"a\": null}]}}"));
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals("GO:0000001", map.contract("http://purl.obolibrary.org/obo/GO_0000001"));
+        Assertions.assertEquals("CL:0000001", map.contract("http://purl.obolibrary.org/obo/CL_0000001"));
+    }
+
+    @Test
+    void testJSONDeclarationOrder() throws IOException {
+        PrefixMap map = PrefixMap.read(new StringReader("{\"@context\": {"
+                + "\"ZZ\": \"http://example.org/ZZ_\", \"AA\": \"http://example.org/ZZ_\"}}"));
+        Assertions.assertEquals("ZZ:0000001", map.contract("http://example.org/ZZ_0000001"));
+
+        map = PrefixMap.read(new StringReader("{\"@context\": {"
+                + "\"AA\": \"http://example.org/ZZ_\", \"ZZ\": \"http://example.org/ZZ_\"}}"));
+        Assertions.assertEquals("AA:0000001", map.contract("http://example.org/ZZ_0000001"));
+        Assertions.assertEquals("http://example.org/ZZ_0000001", map.expand("ZZ:0000001"));
+    }
+
+    @Test
+    void testReadInvalidJSON() {
+        Assertions.assertThrows(IOException.class,
+                () -> PrefixMap.read(new StringReader("{\"@context\": {\"GO\": \"http://")));
+        Assertions.assertThrows(IOException.class, () -> PrefixMap.read(new StringReader("{\"GO\": 1}")));
+    }
+
+    @Test
+    void testExpandingChecker() {
+        PrefixMap map = new PrefixMap();
+        map.add("GO", "http://purl.obolibrary.org/obo/GO_");
+        IExistenceChecker checker = map
+                .getExpandingChecker((id) -> id.equals("http://purl.obolibrary.org/obo/GO_0000001"));
+        Assertions.assertTrue(checker.exists("GO:0000001"));
+        Assertions.assertTrue(checker.exists("http://purl.obolibrary.org/obo/GO_0000001"));
+        Assertions.assertFalse(checker.exists("GO:0000002"));
+    }
+}
@@ -19,6 +19,7 @@
 package org.incenp.obofoundry.dicer;
 
 import java.util.HashSet;
+import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -102,4 +103,39 @@ public class RandomizedIDGeneratorTest {
             Assertions.assertEquals("No available ID in range", e.getMessage());
         }
     }
+
+    @Test
+    void testGenerateBlockOfIDs() {
+        HashSet<String> usedIDs = new HashSet<>();
+        for ( int i = 1000; i < 1100; i++ ) {
+            usedIDs.add(String.format("https://example.org/%07d", i));
+        }
+
+        IAutoIDGenerator gen = new RandomizedIDGenerator("https://example.org/%07d", 1000, 2000,
+                (id) -> usedIDs.contains(id));
+
+        try {
+            List<String> ids = gen.nextIDs(10);
+            Assertions.assertEquals(10, ids.size());
+            Assertions.assertEquals(10, new HashSet<String>(ids).size());
+            for ( String id : ids ) {
+                Assertions.assertTrue(id.startsWith("https://example.org/0001"));
+                Assertions.assertFalse(usedIDs.contains(id));
+            }
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    void testFailUponOutOfIDSpaceForBlock() {
+        IAutoIDGenerator gen = new RandomizedIDGenerator("https://example.org/%07d", 1000, 1010, (id) -> false);
+
+        try {
+            gen.nextIDs(20);
+            Assertions.fail("Expected IDNotFoundException not thrown", null);
+        } catch ( IDNotFoundException e ) {
+            Assertions.assertEquals("No available ID in range", e.getMessage());
+        }
+    }
 }
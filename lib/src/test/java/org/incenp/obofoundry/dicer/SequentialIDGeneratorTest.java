@@ -19,6 +19,7 @@
 package org.incenp.obofoundry.dicer;
 
 import java.util.HashSet;
+import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -122,4 +123,83 @@ public class SequentialIDGeneratorTest {
             }
         }
     }
+
+    @Test
+    void testGenerateBlockOfIDs() {
+        HashSet<String> usedIDs = new HashSet<>();
+        usedIDs.add("https://example.org/0001005");
+
+        IAutoIDGenerator gen = new SequentialIDGenerator("https://example.org/%07d", 1000, 2000,
+                (id) -> usedIDs.contains(id));
+
+        try {
+            List<String> ids = gen.nextIDs(10);
+            Assertions.assertEquals(10, ids.size());
+            for ( int i = 0; i < 10; i++ ) {
+                int expected = i < 5 ? i : i + 1;
+                Assertions.assertEquals(String.format("https://example.org/%07d", 1000 + expected), ids.get(i));
+            }
+
+            // Block generation and single generation should continue from each other
+            Assertions.assertEquals("https://example.org/0001011", gen.nextID());
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    void testFailUponOutOfIDSpaceForBlock() {
+        IAutoIDGenerator gen = new SequentialIDGenerator("https://example.org/%07d", 1000, 1010,
+                (id) -> id.equals("https://example.org/0001003"));
+
+        try {
+            Assertions.assertEquals(9, gen.nextIDs(9).size());
+            Assertions.assertEquals(0, gen.nextIDs(0).size());
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        try {
+            gen.nextIDs(1);
+            Assertions.fail("Expected IDNotFoundException not thrown");
+        } catch ( IDNotFoundException e ) {
+            Assertions.assertEquals("No available ID in range", e.getMessage());
+        }
+    }
+
+    @Test
+    void testFailedBlockLeavesGeneratorUntouched() {
+        IAutoIDGenerator gen = new SequentialIDGenerator("https://example.org/%07d", 1000, 1010,
+                (id) -> id.equals("https://example.org/0001003"));
+
+        // More IDs than the size of the range
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextIDs(11));
+        // More IDs than available after scanning the range
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextIDs(10));
+
+        try {
+            Assertions.assertEquals("https://example.org/0001000", gen.nextID());
+            Assertions.assertEquals(8, gen.nextIDs(8).size());
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    void testFallbackToStringFormat() {
+        // Hexadecimal IDs are not supported by IDFormat, but were supported when
+        // IDs were formatted with String.format.
+        IAutoIDGenerator gen = new SequentialIDGenerator("https://example.org/%04X", 250, 300,
+                (id) -> id.equals("https://example.org/00FB"));
+
+        try {
+            Assertions.assertEquals("https://example.org/00FA", gen.nextID());
+            Assertions.assertEquals("https://example.org/00FC", gen.nextID());
+            List<String> ids = gen.nextIDs(2);
+            Assertions.assertEquals("https://example.org/00FD", ids.get(0));
+            Assertions.assertEquals("https://example.org/00FE", ids.get(1));
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+    }
 }
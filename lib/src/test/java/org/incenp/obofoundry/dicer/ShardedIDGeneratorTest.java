@@ -0,0 +1,107 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.incenp.obofoundry.dicer.ShardedIDGenerator.Mode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ShardedIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testStridedShards() throws IDNotFoundException {
+        ShardedIDGenerator gen = new ShardedIDGenerator(format, 1000, 1010, (id) -> false, 1, 3, Mode.STRIDED);
+        Assertions.assertEquals(3, gen.getShardSize());
+        Assertions.assertEquals(List.of(format.format(1001), format.format(1004), format.format(1007)),
+                gen.nextIDs(3));
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextID());
+        Assertions.assertTrue(gen.isInShard(1004));
+        Assertions.assertFalse(gen.isInShard(1005));
+    }
+
+    @Test
+    void testBlockedShards() throws IDNotFoundException {
+        ShardedIDGenerator gen = new ShardedIDGenerator(format, 1000, 1010, (id) -> id.equals(format.format(1004)),
+                1, 3, Mode.BLOCKED);
+        Assertions.assertEquals(3, gen.getShardSize());
+        Assertions.assertEquals(format.format(1003), gen.nextID());
+        Assertions.assertEquals(format.format(1005), gen.nextID());
+        Assertions.assertEquals(0, gen.getRemaining());
+    }
+
+    @Test
+    void testShardsCoverRangeWithoutOverlap() {
+        for ( Mode mode : Mode.values() ) {
+            HashSet<Integer> seen = new HashSet<>();
+            int shards = 7;
+            for ( int s = 0; s < shards; s++ ) {
+                ShardedIDGenerator gen = new ShardedIDGenerator(format, 1000, 2013, (id) -> false, s, shards, mode);
+                try {
+                    while ( true ) {
+                        Assertions.assertTrue(seen.add(gen.nextNumber()));
+                    }
+                } catch ( IDNotFoundException e ) {
+                }
+            }
+            Assertions.assertEquals(1013, seen.size());
+        }
+    }
+
+    @Test
+    void testFailedBlockLeavesGeneratorUntouched() throws IDNotFoundException {
+        ShardedIDGenerator gen = new ShardedIDGenerator(format, 1000, 1010, (id) -> id.equals(format.format(1004)),
+                1, 3, Mode.BLOCKED);
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextIDs(4));
+        Assertions.assertThrows(IDNotFoundException.class, () -> gen.nextIDs(3));
+        Assertions.assertEquals(3, gen.getRemaining());
+        Assertions.assertEquals(List.of(format.format(1003), format.format(1005)), gen.nextIDs(2));
+        Assertions.assertEquals(1005, gen.getLastIssued());
+    }
+
+    @Test
+    void testResumeAfterLastIssuedID() throws IDNotFoundException {
+        ShardedIDGenerator gen = new ShardedIDGenerator(format, 1000, 1100, (id) -> false, 2, 10, Mode.STRIDED);
+        Assertions.assertEquals(-1, gen.getLastIssued());
+        gen.nextIDs(3);
+        Assertions.assertEquals(1022, gen.getLastIssued());
+
+        // A node recovering the shard picks up right after the last issued ID,
+        // even if the checker does not know about the IDs issued so far.
+        ShardedIDGenerator recovery = new ShardedIDGenerator(format, 1000, 1100, (id) -> false, 2, 10, Mode.STRIDED,
+                gen.getLastIssued());
+        Assertions.assertEquals(7, recovery.getRemaining());
+        Assertions.assertEquals(format.format(1032), recovery.nextID());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ShardedIDGenerator(format, 1000, 1100, (id) -> false, 2, 10, Mode.STRIDED, 1023));
+    }
+
+    @Test
+    void testInvalidShard() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ShardedIDGenerator(format, 1000, 2000, (id) -> false, 3, 3, Mode.STRIDED));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ShardedIDGenerator(format, 1000, 1002, (id) -> false, 0, 3, Mode.BLOCKED));
+    }
+}
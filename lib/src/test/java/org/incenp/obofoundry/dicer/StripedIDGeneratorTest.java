@@ -0,0 +1,150 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StripedIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testSingleThreadExhaustsAllStripes() {
+        IAutoIDGenerator gen = new StripedIDGenerator(format, 1000, 1100,
+                (id) -> id.equals("https://example.org/0001050"), 4);
+
+        HashSet<String> generated = new HashSet<>();
+        try {
+            for ( int i = 0; i < 99; i++ ) {
+                String id = gen.nextID();
+                int n = format.parse(id);
+                Assertions.assertTrue(n >= 1000 && n < 1100 && n != 1050);
+                Assertions.assertTrue(generated.add(id));
+            }
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        // The first stripe is consumed sequentially before any stealing happens.
+        Assertions.assertTrue(generated.contains("https://example.org/0001000"));
+
+        try {
+            gen.nextID();
+            Assertions.fail("Expected IDNotFoundException not thrown");
+        } catch ( IDNotFoundException e ) {
+            Assertions.assertEquals("No available ID in range", e.getMessage());
+        }
+    }
+
+    @Test
+    void testStripesOfTerminatedThreadsAreReclaimed() throws Exception {
+        StripedIDGenerator gen = new StripedIDGenerator(format, 0, 100, (id) -> false, 2);
+
+        // Each call runs on a new thread, which terminates afterwards. Every new
+        // thread must inherit the first stripe from the previous one, instead of
+        // using up the second stripe and then having no stripe at all.
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), runOnNewThread(gen, 10));
+        Assertions.assertEquals(List.of(10), runOnNewThread(gen, 1));
+        Assertions.assertEquals(List.of(11), runOnNewThread(gen, 1));
+    }
+
+    private List<Integer> runOnNewThread(StripedIDGenerator gen, int count) throws Exception {
+        List<Integer> numbers = new ArrayList<>();
+        List<Exception> errors = new ArrayList<>();
+        Thread thread = new Thread(() -> {
+            try {
+                for ( int i = 0; i < count; i++ ) {
+                    numbers.add(gen.nextNumber());
+                }
+            } catch ( IDNotFoundException e ) {
+                errors.add(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        if ( !errors.isEmpty() ) {
+            throw errors.get(0);
+        }
+        return numbers;
+    }
+
+    @Test
+    void testNoDuplicatesUnderContention() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int size = 200000;
+
+        // Some threads get no stripe of their own.
+        IExistenceChecker checker = (id) -> format.parse(id) % 11 == 0;
+        IAutoIDGenerator gen = new StripedIDGenerator(format, 0, size, checker, threads - 2);
+
+        Set<String> generated = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        for ( int t = 0; t < threads; t++ ) {
+            boolean useBatches = t % 2 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                int duplicates = 0;
+                try {
+                    while ( true ) {
+                        for ( String id : useBatches ? gen.nextIDs(7) : List.of(gen.nextID()) ) {
+                            if ( !generated.add(id) ) {
+                                duplicates += 1;
+                            }
+                        }
+                    }
+                } catch ( IDNotFoundException e ) {
+                    // Expected once the range is exhausted
+                }
+                return duplicates;
+            }));
+        }
+        start.countDown();
+
+        for ( Future<Integer> result : results ) {
+            Assertions.assertEquals(0, result.get());
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // All free IDs have been generated, except those that were part of an
+        // incomplete batch when the range ran out.
+        int free = size - (size + 10) / 11;
+        Assertions.assertTrue(generated.size() <= free);
+        Assertions.assertTrue(generated.size() > free - 7 * threads);
+        for ( String id : generated ) {
+            int n = format.parse(id);
+            Assertions.assertTrue(n >= 0 && n < size);
+            Assertions.assertFalse(checker.exists(id));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TieredExistenceCheckerTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testTiersAreQueriedInOrder() {
+        TieredExistenceChecker checker = new TieredExistenceChecker(format, 0);
+        checker.addTier("local", Set.of("A", "B")::contains);
+        checker.addTier("remote", Set.of("B", "C")::contains);
+
+        Assertions.assertTrue(checker.exists("A"));
+        Assertions.assertTrue(checker.exists("B"));
+        Assertions.assertTrue(checker.exists("C"));
+        Assertions.assertFalse(checker.exists("D"));
+
+        TieredExistenceChecker.Tier local = checker.getTiers().get(0);
+        Assertions.assertEquals("local", local.getName());
+        Assertions.assertEquals(4, local.getQueries());
+        Assertions.assertEquals(2, local.getHits());
+        Assertions.assertEquals(0.5, local.getHitRate());
+
+        // The remote tier is not queried for IDs found locally
+        TieredExistenceChecker.Tier remote = checker.getTiers().get(1);
+        Assertions.assertEquals(2, remote.getQueries());
+        Assertions.assertEquals(1, remote.getHits());
+
+        Assertions.assertEquals(0, checker.getCacheHits());
+        Assertions.assertEquals(4, checker.getCacheMisses());
+    }
+
+    @Test
+    void testCachedResults() {
+        TieredExistenceChecker checker = new TieredExistenceChecker(format, 2);
+        checker.addTier("only", Set.of("A")::contains);
+        TieredExistenceChecker.Tier tier = checker.getTiers().get(0);
+
+        Assertions.assertTrue(checker.exists("A"));
+        Assertions.assertFalse(checker.exists("B"));
+        Assertions.assertTrue(checker.exists("A"));
+        Assertions.assertFalse(checker.exists("B"));
+        Assertions.assertEquals(2, tier.getQueries());
+        Assertions.assertEquals(2, checker.getCacheHits());
+
+        // Evicts the least recently used entry (A)
+        Assertions.assertFalse(checker.exists("C"));
+        Assertions.assertFalse(checker.exists("B"));
+        Assertions.assertEquals(3, tier.getQueries());
+        Assertions.assertTrue(checker.exists("A"));
+        Assertions.assertEquals(4, tier.getQueries());
+
+        checker.invalidate("A");
+        Assertions.assertTrue(checker.exists("A"));
+        Assertions.assertEquals(5, tier.getQueries());
+
+        checker.clearCache();
+        Assertions.assertFalse(checker.exists("B"));
+        Assertions.assertEquals(6, tier.getQueries());
+    }
+
+    @Test
+    void testNumericalQueries() {
+        TieredExistenceChecker checker = new TieredExistenceChecker(format, 10);
+        checker.addTier("strings", Set.of(format.format(1))::contains);
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.add(2);
+        checker.addTier("index", index);
+
+        // The index tier is queried by number, the string tier by formatted ID
+        Assertions.assertTrue(checker.exists(1));
+        Assertions.assertTrue(checker.exists(2));
+        Assertions.assertFalse(checker.exists(3));
+        Assertions.assertEquals(3, checker.getTiers().get(0).getQueries());
+        Assertions.assertEquals(2, checker.getTiers().get(1).getQueries());
+
+        // Numerical results are cached separately, and invalidated along with
+        // the corresponding formatted ID
+        Assertions.assertTrue(checker.exists(2));
+        Assertions.assertEquals(1, checker.getCacheHits());
+        index.add(3);
+        Assertions.assertFalse(checker.exists(3));
+        checker.invalidate(format.format(3));
+        Assertions.assertTrue(checker.exists(3));
+
+        // Generators see the numerical interface
+        Assertions.assertSame(checker, IIntExistenceChecker.fromChecker(checker, format));
+    }
+
+    @Test
+    void testNextFreeSkipsIndexedIDs() {
+        TieredExistenceChecker checker = new TieredExistenceChecker(format, 10);
+        UsedIDIndex reserved = new UsedIDIndex(format);
+        reserved.getBitmap().addRange(1000, 1500);
+        checker.addTier("reserved", reserved);
+        UsedIDIndex ontology = new UsedIDIndex(format);
+        ontology.getBitmap().addRange(1500, 2000);
+        checker.addTier("ontology", ontology);
+        checker.addTier("strings", Set.of(format.format(2000))::contains);
+
+        Assertions.assertEquals(2001, checker.nextFree(1000, 3000));
+        Assertions.assertEquals(-1, checker.nextFree(1000, 2001));
+        // Only the final candidates were checked individually
+        Assertions.assertEquals(2, checker.getTiers().get(2).getQueries());
+    }
+}
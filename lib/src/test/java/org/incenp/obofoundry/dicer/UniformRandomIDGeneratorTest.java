@@ -0,0 +1,81 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UniformRandomIDGeneratorTest {
+
+    private IDFormat format = new IDFormat("https://example.org/", 7);
+
+    @Test
+    void testGenerateAllFreeIDsInFullRange() {
+        // 90% of the range is already used.
+        HashSet<String> usedIDs = new HashSet<>();
+        for ( int i = 1000; i < 2000; i++ ) {
+            if ( i % 10 != 0 ) {
+                usedIDs.add(format.format(i));
+            }
+        }
+
+        IAutoIDGenerator gen = new UniformRandomIDGenerator(format, 1000, 2000, (id) -> usedIDs.contains(id),
+                new Random(1));
+
+        HashSet<String> generated = new HashSet<>();
+        try {
+            for ( String id : gen.nextIDs(100) ) {
+                Assertions.assertEquals(0, format.parse(id) % 10);
+                Assertions.assertTrue(generated.add(id));
+            }
+        } catch ( IDNotFoundException e ) {
+            Assertions.fail(e);
+        }
+
+        try {
+            gen.nextID();
+            Assertions.fail("Expected IDNotFoundException not thrown");
+        } catch ( IDNotFoundException e ) {
+            Assertions.assertEquals("No available ID in range", e.getMessage());
+        }
+    }
+
+    @Test
+    void testUnbiasedSelection() {
+        // Only the first ten and the last ten IDs are free; a forward-skipping
+        // generator would favour the first ones.
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.getBitmap().addRange(10, 990);
+
+        int[] counts = new int[2];
+        Random rand = new Random(3);
+        for ( int i = 0; i < 1000; i++ ) {
+            IAutoIDGenerator gen = new UniformRandomIDGenerator(format, 0, 1000, index, rand);
+            try {
+                counts[format.parse(gen.nextID()) < 500 ? 0 : 1] += 1;
+            } catch ( IDNotFoundException e ) {
+                Assertions.fail(e);
+            }
+        }
+        Assertions.assertTrue(counts[0] > 400 && counts[1] > 400);
+    }
+}
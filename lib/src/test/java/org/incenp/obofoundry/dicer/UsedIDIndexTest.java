@@ -0,0 +1,124 @@
+/*
+ * Dicer - OBO ID range library
+ * Copyright © 2025 Damien Goutte-Gattat
+ * 
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.incenp.obofoundry.dicer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+public class UsedIDIndexTest {
+
+    private IDFormat format = new IDFormat("https://example.org/EX_", "EX", 7);
+
+    @Test
+    void testIndexFromSignature() throws OWLOntologyCreationException {
+        OWLOntologyManager mgr = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = mgr.createOntology();
+        OWLDataFactory fac = mgr.getOWLDataFactory();
+        mgr.addAxiom(ontology,
+                fac.getOWLDeclarationAxiom(fac.getOWLClass(IRI.create("https://example.org/EX_0000010"))));
+        mgr.addAxiom(ontology,
+                fac.getOWLDeclarationAxiom(fac.getOWLObjectProperty(IRI.create("https://example.org/EX_0000020"))));
+        mgr.addAxiom(ontology,
+                fac.getOWLDeclarationAxiom(fac.getOWLClass(IRI.create("https://example.org/OTHER_0000030"))));
+
+        UsedIDIndex index = UsedIDIndex.fromSignature(format, ontology);
+        Assertions.assertTrue(index.exists("https://example.org/EX_0000010"));
+        Assertions.assertTrue(index.exists("EX:0000020"));
+        Assertions.assertFalse(index.exists("https://example.org/EX_0000030"));
+        Assertions.assertFalse(index.exists("https://example.org/OTHER_0000030"));
+        Assertions.assertEquals(2, index.getBitmap().cardinality());
+    }
+
+    @Test
+    void testIndexFromOntology() throws OWLOntologyCreationException {
+        OWLOntologyManager mgr = OWLManager.createOWLOntologyManager();
+        OWLDataFactory fac = mgr.getOWLDataFactory();
+        IRI importedIRI = IRI.create("https://example.org/imported.owl");
+        OWLOntology imported = mgr.createOntology(importedIRI);
+        mgr.addAxiom(imported,
+                fac.getOWLDeclarationAxiom(fac.getOWLClass(IRI.create("https://example.org/EX_0000010"))));
+        OWLOntology ontology = mgr.createOntology(IRI.create("https://example.org/main.owl"));
+        mgr.applyChange(new AddImport(ontology, fac.getOWLImportsDeclaration(importedIRI)));
+        mgr.addAxiom(ontology,
+                fac.getOWLDeclarationAxiom(fac.getOWLClass(IRI.create("https://example.org/EX_0000020"))));
+        mgr.addAxiom(ontology, fac.getOWLAnnotationAssertionAxiom(fac.getRDFSLabel(),
+                IRI.create("https://example.org/EX_0000030"), fac.getOWLLiteral("undeclared")));
+
+        UsedIDIndex index = UsedIDIndex.fromOntology(format, ontology, Imports.EXCLUDED, false);
+        Assertions.assertFalse(index.exists(10));
+        Assertions.assertTrue(index.exists(20));
+        Assertions.assertFalse(index.exists(30));
+
+        index = UsedIDIndex.fromOntology(format, ontology, Imports.INCLUDED, true);
+        Assertions.assertTrue(index.exists(10));
+        Assertions.assertTrue(index.exists(20));
+        Assertions.assertTrue(index.exists(30));
+        Assertions.assertEquals(3, index.getBitmap().cardinality());
+    }
+
+    @Test
+    void testIndexFromFiles(@TempDir Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ ) {
+            Path file = dir.resolve("file" + i + ".obo");
+            Files.writeString(file, String.format("id: EX:%07d\nis_a: EX:%07d\n", i, 100 + i));
+            files.add(file);
+        }
+
+        IDScanner scanner = new IDScanner(format);
+        UsedIDIndex index = UsedIDIndex.fromFiles(format, files, scanner::index);
+        Assertions.assertEquals(20, index.getBitmap().cardinality());
+        Assertions.assertTrue(index.exists(9));
+        Assertions.assertTrue(index.exists(109));
+
+        files.add(dir.resolve("missing.obo"));
+        Assertions.assertThrows(NoSuchFileException.class, () -> scanner.index(files));
+    }
+
+    @Test
+    void testLookups() {
+        UsedIDIndex index = new UsedIDIndex(format);
+        index.getBitmap().addRange(100, 200);
+        index.add("EX:0000250");
+        Assertions.assertFalse(index.add("not an ID"));
+
+        Assertions.assertEquals(200, index.nextFree(100, 300));
+        Assertions.assertEquals(-1, index.nextFree(100, 200));
+        Assertions.assertEquals(250, index.lastUsed(0, 1000));
+        Assertions.assertEquals(199, index.lastUsed(0, 250));
+        Assertions.assertEquals(-1, index.lastUsed(300, 1000));
+        Assertions.assertEquals(101, index.countUsed(0, 1000));
+    }
+}